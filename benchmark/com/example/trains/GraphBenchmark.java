@@ -0,0 +1,90 @@
+package com.example.trains;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the public {@link Graph} entry points on generated networks.
+ * Build with {@code mvn -P jmh package} and run with {@code java -jar target/benchmarks.jar -prof gc} to also
+ * report the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GraphBenchmark {
+
+    @State(Scope.Thread)
+    public static class Query {
+        int next;
+        ShortestPathTree tree;
+        PrintStream sink;
+
+        @Setup(Level.Trial)
+        public void prepare(NetworkState network) {
+            this.tree = network.graph.distancesFrom(network.source(0));
+            this.sink = new PrintStream(OutputStream.nullOutputStream());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OffHeap {
+        OffHeapGraph graph;
+
+        @Setup(Level.Trial)
+        public void copy(NetworkState network) {
+            this.graph = OffHeapGraph.copyOf(network.graph.getAdjacency());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            this.graph.close();
+        }
+    }
+
+    @Benchmark
+    public Graph readFrom(NetworkState network) {
+        Graph graph = new Graph();
+        graph.readFrom(network.file.toString());
+        return graph;
+    }
+
+    @Benchmark
+    public ShortestPathTree distancesFrom(NetworkState network, Query query) {
+        return network.graph.distancesFrom(network.source(query.next++));
+    }
+
+    @Benchmark
+    public ShortestPathTree offHeapDistancesFrom(NetworkState network, Query query, OffHeap offHeap) {
+        return offHeap.graph.distancesFrom(network.source(query.next++));
+    }
+
+    @Benchmark
+    public Isochrone isochrone(NetworkState network, Query query) {
+        return network.graph.isochrone(network.source(query.next++), 2);
+    }
+
+    @Benchmark
+    public void printDistances(NetworkState network, Query query) {
+        network.graph.printDistances(query.tree, query.sink);
+    }
+
+    @Benchmark
+    public void toDotFormat(NetworkState network, Query query) {
+        network.graph.toDotFormat(query.sink);
+    }
+}
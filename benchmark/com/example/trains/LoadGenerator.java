@@ -0,0 +1,95 @@
+package com.example.trains;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the queries per second of a {@link QueryServer} started with {@code --serve <port>}.
+ * Each connection pipelines its queries, picked at random from the vertex names of the graph, from one thread while
+ * another counts the answers.
+ * <p>
+ * Usage: {@code LoadGenerator <port> <input file> <connections> <queries per connection> [route fraction]}
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) {
+        CompactGraph graph = GraphParser.parse(Path.of(args[1]));
+        double routes = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        double rate = run(Integer.parseInt(args[0]), graph, Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                routes);
+        System.out.printf("%.0f queries/s%n", rate);
+    }
+
+    /**
+     * Sends {@code queries} queries on each of {@code connections} connections, a {@code routes} fraction of them
+     * being routes rather than distances, and returns the number of answers per second.
+     */
+    public static double run(int port, CompactGraph graph, int connections, int queries, double routes) {
+        LongAdder answered = new LongAdder();
+        List<Thread> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            SplittableRandom random = new SplittableRandom(c);
+            clients.add(Thread.ofPlatform().start(() -> run(port, graph, queries, routes, random, answered)));
+        }
+        try {
+            for (Thread client : clients) {
+                client.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return answered.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void run(int port, CompactGraph graph, int queries, double routes, SplittableRandom random,
+                            LongAdder answered) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Thread sender = Thread.ofPlatform().start(() -> {
+                try {
+                    BufferedWriter writer = new BufferedWriter(
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                    for (int q = 0; q < queries; q++) {
+                        writer.write(graph.name(random.nextInt(graph.vertexCount())));
+                        if (random.nextDouble() < routes) {
+                            writer.write(", ");
+                            writer.write(graph.name(random.nextInt(graph.vertexCount())));
+                        }
+                        writer.newLine();
+                    }
+                    writer.flush();
+                    socket.shutdownOutput();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    answered.increment();
+                }
+            }
+            sender.join();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Generated network shared by the benchmarks of one trial, loaded both in memory and as an {@code input.txt} file.
+ * Larger sizes, up to 10M vertices, can be selected with {@code -p vertices=10000000} given enough heap.
+ */
+@State(Scope.Benchmark)
+public class NetworkState {
+    private static final long SEED = 42;
+
+    @Param({"GRID", "GEOMETRIC", "SCALE_FREE"})
+    public RailNetworks.Shape shape;
+
+    @Param({"1000", "100000", "1000000"})
+    public int vertices;
+
+    Path file;
+    Graph graph;
+    int[] sources;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        CompactGraph network = RailNetworks.generate(this.shape, this.vertices, SEED);
+        try {
+            this.file = Files.createTempFile("network", ".txt");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        RailNetworks.write(network, this.file);
+        this.graph = new Graph();
+        this.graph.load(network);
+        this.sources = new SplittableRandom(SEED).ints(64, 0, this.vertices).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    Vertex source(int query) {
+        return new Vertex(this.sources[query & (this.sources.length - 1)], "");
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.trains;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of {@code distancesFrom} on a network whose stations are listed in random order, as in a file that was
+ * not written with locality in mind, with and without reordering at load time.
+ * Run with {@code -prof perfnorm} on Linux to also report cache misses per query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class OrderingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shuffled {
+        @Param({"false", "true"})
+        public boolean reordered;
+
+        Graph graph;
+        int next;
+
+        @Setup(Level.Trial)
+        public void shuffle(NetworkState network) {
+            CompactGraph adjacency = network.graph.getAdjacency();
+            int[] order = new int[adjacency.vertexCount()];
+            for (int v = 0; v < order.length; v++) {
+                order[v] = v;
+            }
+            SplittableRandom random = new SplittableRandom(7);
+            for (int v = order.length - 1; v > 0; v--) {
+                int other = random.nextInt(v + 1);
+                int swap = order[v];
+                order[v] = order[other];
+                order[other] = swap;
+            }
+            this.graph = new Graph();
+            this.graph.setReordering(this.reordered);
+            this.graph.load(VertexOrder.of(adjacency, order).graph);
+        }
+    }
+
+    @Benchmark
+    public ShortestPathTree distancesFrom(NetworkState network, Shuffled shuffled) {
+        return shuffled.graph.distancesFrom(network.source(shuffled.next++));
+    }
+}
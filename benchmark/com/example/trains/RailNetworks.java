@@ -0,0 +1,155 @@
+package com.example.trains;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generators of synthetic rail networks. Every connection is added in both directions, as in
+ * {@code input.txt}, with durations in quarter hours.
+ */
+public final class RailNetworks {
+
+    public enum Shape {
+        GRID, GEOMETRIC, SCALE_FREE
+    }
+
+    private RailNetworks() {
+    }
+
+    static CompactGraph generate(Shape shape, int vertexCount, long seed) {
+        return switch (shape) {
+            case GRID -> grid(vertexCount, seed);
+            case GEOMETRIC -> geometric(vertexCount, 6, seed);
+            case SCALE_FREE -> scaleFree(vertexCount, 2, seed);
+        };
+    }
+
+    /**
+     * Stations on a square lattice, each connected to its right and lower neighbour.
+     */
+    static CompactGraph grid(int vertexCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        CompactGraph.Builder builder = vertices(vertexCount);
+        int side = (int) Math.ceil(Math.sqrt(vertexCount));
+        for (int v = 0; v < vertexCount; v++) {
+            if ((v + 1) % side != 0 && v + 1 < vertexCount) {
+                connect(builder, v, v + 1, duration(random));
+            }
+            if (v + side < vertexCount) {
+                connect(builder, v, v + side, duration(random));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Stations placed uniformly in the unit square and connected to every station closer than the radius giving the
+     * requested average degree; the duration grows with the distance.
+     */
+    static CompactGraph geometric(int vertexCount, double averageDegree, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        CompactGraph.Builder builder = vertices(vertexCount);
+        double radius = Math.sqrt(averageDegree / (Math.PI * vertexCount));
+        int cells = Math.max(1, (int) (1 / radius));
+        double[] x = new double[vertexCount];
+        double[] y = new double[vertexCount];
+        int[] cellOf = new int[vertexCount];
+        int[] cellStart = new int[cells * cells + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            x[v] = random.nextDouble();
+            y[v] = random.nextDouble();
+            cellOf[v] = cell(x[v], cells) * cells + cell(y[v], cells);
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] next = Arrays.copyOf(cellStart, cells * cells);
+        int[] byCell = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            byCell[next[cellOf[v]]++] = v;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            int column = cellOf[v] / cells;
+            int row = cellOf[v] % cells;
+            for (int i = Math.max(0, column - 1); i <= Math.min(cells - 1, column + 1); i++) {
+                for (int j = Math.max(0, row - 1); j <= Math.min(cells - 1, row + 1); j++) {
+                    int c = i * cells + j;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                        int u = byCell[k];
+                        double distance = Math.hypot(x[u] - x[v], y[u] - y[v]);
+                        if (u > v && distance <= radius) {
+                            connect(builder, v, u, 0.25 + Math.rint(distance / radius * 16) * 0.25);
+                        }
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Preferential attachment: each new station connects to {@code links} existing stations picked with a
+     * probability proportional to their degree, which yields a few large hubs and many small stations.
+     */
+    static CompactGraph scaleFree(int vertexCount, int links, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        CompactGraph.Builder builder = vertices(vertexCount);
+        int[] endpoints = new int[2 * links * vertexCount];
+        int size = 0;
+        for (int v = 1; v < vertexCount; v++) {
+            int existing = size;
+            for (int l = 0; l < Math.min(links, v); l++) {
+                int u = existing == 0 ? 0 : endpoints[random.nextInt(existing)];
+                connect(builder, v, u, duration(random));
+                endpoints[size++] = u;
+                endpoints[size++] = v;
+            }
+        }
+        return builder.build();
+    }
+
+    static void write(CompactGraph graph, Path path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                writer.write(graph.name(v));
+                writer.newLine();
+            }
+            writer.newLine();
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                for (int e = graph.edgesStart(v); e < graph.edgesEnd(v); e++) {
+                    writer.write(v + ", " + graph.target(e) + ", " + graph.weight(e));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static CompactGraph.Builder vertices(int vertexCount) {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < vertexCount; v++) {
+            builder.addVertex("Station" + v);
+        }
+        return builder;
+    }
+
+    private static void connect(CompactGraph.Builder builder, int a, int b, double duration) {
+        builder.addEdge(a, b, duration);
+        builder.addEdge(b, a, duration);
+    }
+
+    private static double duration(SplittableRandom random) {
+        return (1 + random.nextInt(16)) * 0.25;
+    }
+
+    private static int cell(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+}
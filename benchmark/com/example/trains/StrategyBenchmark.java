@@ -0,0 +1,46 @@
+package com.example.trains;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of one {@code distancesFrom} query per search strategy on generated networks.
+ * The speedup of delta-stepping with the number of cores can be measured by running the same benchmark with
+ * {@code -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=<n>} for increasing {@code n}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StrategyBenchmark {
+
+    @State(Scope.Thread)
+    public static class Strategy {
+        @Param({"BINARY_HEAP", "DELTA_STEPPING", "DIAL"})
+        public SearchStrategy strategy;
+
+        int next;
+
+        @Setup(Level.Iteration)
+        public void select(NetworkState network) {
+            network.graph.setStrategy(this.strategy);
+        }
+    }
+
+    @Benchmark
+    public ShortestPathTree distancesFrom(NetworkState network, Strategy strategy) {
+        return network.graph.distancesFrom(network.source(strategy.next++));
+    }
+}
@@ -1,17 +1,98 @@
 package com.example.trains;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
 public class Application {
     public static void main(String[] args) {
+        String snapshot = System.getProperty("trains.snapshot");
+        String backend = System.getProperty("trains.backend", "heap");
+        if (!backend.equals("heap") && !backend.equals("offheap")) {
+            throw new IllegalArgumentException("Unknown backend %s".formatted(backend));
+        }
+        if (backend.equals("offheap")) {
+            runOffHeap(args, snapshot);
+            return;
+        }
         Graph graph = new Graph();
-        graph.readFrom("input.txt");
-        graph.toDotFormat("graph");
+        graph.setStrategy(SearchStrategy.valueOf(System.getProperty("trains.strategy", "BINARY_HEAP")));
+        graph.setReordering(Boolean.getBoolean("trains.reorder"));
+        if (snapshot == null) {
+            graph.readFrom("input.txt");
+        } else {
+            graph.readFrom("input.txt", snapshot);
+        }
+        if (args.length >= 1 && (args[0].equals("--batch") || args[0].equals("--serve"))) {
+            serve(graph, args);
+            return;
+        }
+        String dot = System.getProperty("trains.dot");
+        if (dot != null) {
+            exportDot(graph, dot, System.getProperty("trains.dot.scope", "graph"), args);
+        }
         if (args.length == 0) {
             graph.printEdges(System.out);
+        } else if (args.length >= 2) {
+            System.out.printf("Calculating route from %s to %s.\n", args[0], args[1]);
+            Route route = graph.shortestPath(args[0], args[1], QueryMode.BIDIRECTIONAL);
+            graph.printRoute(route, System.out);
         } else {
             String start = args[0];
             System.out.printf("Calculating distances from %s.\n", start);
-            graph.distancesFrom(start);
-            graph.printDistances(System.out);
+            graph.printDistances(graph.distancesFrom(start), System.out);
+        }
+    }
+
+    /**
+     * Answers distance queries with {@code -Dtrains.backend=offheap}, from the command line or through
+     * {@code --batch} and {@code --serve}: the snapshot is mapped when it is fresh and {@code input.txt} is parsed
+     * straight into direct buffers otherwise, without loading a {@link Graph}. Other modes need the heap backend.
+     */
+    private static void runOffHeap(String[] args, String snapshot) {
+        boolean serving = args.length >= 1 && (args[0].equals("--batch") || args[0].equals("--serve"));
+        if (!serving && (args.length != 1 || args[0].startsWith("--") || System.getProperty("trains.dot") != null)) {
+            throw new IllegalArgumentException("The offheap backend only answers distance queries");
+        }
+        Path source = Path.of("input.txt");
+        try (OffHeapGraph graph = snapshot == null
+                ? OffHeapGraph.readFrom(source)
+                : OffHeapGraph.readFrom(source, Path.of(snapshot))) {
+            if (serving) {
+                serve(graph, args);
+            } else {
+                System.out.printf("Calculating distances from %s.\n", args[0]);
+                new ResultWriter().writeDistances(graph.distancesFrom(args[0]), System.out);
+            }
+        }
+    }
+
+    /**
+     * Exports the whole graph, the shortest-path tree from the first argument ({@code tree}) or its neighbourhood
+     * up to a number of hops (an integer scope).
+     */
+    private static void exportDot(Graph graph, String filename, String scope, String[] args) {
+        if (scope.equals("graph") || args.length == 0) {
+            graph.toDotFormat(filename);
+        } else if (scope.equals("tree")) {
+            graph.toDotFormat(graph.distancesFrom(args[0]), filename);
+        } else {
+            graph.toDotFormat(graph.getVertex(args[0]), Integer.parseInt(scope), filename);
+        }
+    }
+
+    private static void serve(ShortestPaths graph, String[] args) {
+        try (QueryServer server = new QueryServer(graph, Runtime.getRuntime().availableProcessors())) {
+            if (args[0].equals("--batch")) {
+                server.serve(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                        new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            } else {
+                server.listen(args.length >= 2 ? Integer.parseInt(args[1]) : 7070);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 }
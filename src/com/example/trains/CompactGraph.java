@@ -0,0 +1,224 @@
+package com.example.trains;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Immutable directed graph in compressed sparse row form.
+ * The outgoing edges of vertex {@code v} are stored at indices {@code offsets[v]} (inclusive) to
+ * {@code offsets[v + 1]} (exclusive) of {@code targets} and {@code weights}, in insertion order.
+ * The transposed graph, used by backward searches, is built alongside and shares the vertex names.
+ */
+public final class CompactGraph {
+    private final String[] names;
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    private final CompactGraph reverse;
+    private volatile int[] minutes;
+    private volatile long checksum = -1;
+
+    private CompactGraph(String[] names, int[] offsets, int[] targets, double[] weights, CompactGraph reverse) {
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.reverse = reverse;
+    }
+
+    private CompactGraph(String[] names, Adjacency forward, Adjacency backward) {
+        this.names = names;
+        this.offsets = forward.offsets();
+        this.targets = forward.targets();
+        this.weights = forward.weights();
+        this.reverse = new CompactGraph(names, backward.offsets(), backward.targets(), backward.weights(), this);
+    }
+
+    static CompactGraph of(String[] names, int[] offsets, int[] targets, double[] weights,
+                           int[] reverseOffsets, int[] reverseTargets, double[] reverseWeights) {
+        return new CompactGraph(names, new Adjacency(offsets, targets, weights),
+                new Adjacency(reverseOffsets, reverseTargets, reverseWeights));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int vertexCount() {
+        return this.names.length;
+    }
+
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    public String name(int vertex) {
+        return this.names[vertex];
+    }
+
+    public int edgesStart(int vertex) {
+        return this.offsets[vertex];
+    }
+
+    public int edgesEnd(int vertex) {
+        return this.offsets[vertex + 1];
+    }
+
+    public int target(int edge) {
+        return this.targets[edge];
+    }
+
+    public double weight(int edge) {
+        return this.weights[edge];
+    }
+
+    public CompactGraph reverse() {
+        return this.reverse;
+    }
+
+    /**
+     * Returns the edge weights, given in hours, as whole minutes, converting them on first use. The conversion is
+     * exact: it fails with an {@link IllegalStateException} if a weight is not a whole number of minutes.
+     */
+    int[] minutes() {
+        int[] converted = this.minutes;
+        if (converted == null) {
+            converted = new int[this.weights.length];
+            for (int e = 0; e < this.weights.length; e++) {
+                converted[e] = toMinutes(this.weights[e]);
+                if (converted[e] < 0) {
+                    throw new IllegalStateException(
+                            "Edge weight %s is not a whole number of minutes".formatted(this.weights[e]));
+                }
+            }
+            this.minutes = converted;
+        }
+        return converted;
+    }
+
+    /**
+     * Returns the CRC32C of the offsets, targets and weights, little-endian, computing it on first use. Saved
+     * preprocessing keeps it to tell whether it was built for this graph or for another one with the same counts.
+     */
+    long checksum() {
+        long computed = this.checksum;
+        if (computed < 0) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (int[] values : new int[][] {this.offsets, this.targets}) {
+                for (int value : values) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        crc.update(buffer.flip());
+                        buffer.clear();
+                    }
+                    buffer.putInt(value);
+                }
+            }
+            for (double value : this.weights) {
+                if (buffer.remaining() < Double.BYTES) {
+                    crc.update(buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putDouble(value);
+            }
+            crc.update(buffer.flip());
+            computed = crc.getValue();
+            this.checksum = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Returns {@code hours} as a whole number of minutes, or -1 when it is not exactly one.
+     */
+    static int toMinutes(double hours) {
+        long rounded = Math.round(hours * 60);
+        return rounded < 0 || rounded > Integer.MAX_VALUE || rounded / 60.0 != hours ? -1 : (int) rounded;
+    }
+
+    private record Adjacency(int[] offsets, int[] targets, double[] weights) {}
+
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] weights = new double[16];
+        private int edgeCount;
+
+        private Builder() {
+        }
+
+        public int addVertex(String name) {
+            this.names.add(name);
+            return this.names.size() - 1;
+        }
+
+        public int vertexCount() {
+            return this.names.size();
+        }
+
+        public Builder addEdge(int source, int target, double weight) {
+            if (source < 0 || source >= this.names.size() || target < 0 || target >= this.names.size()) {
+                throw new IllegalArgumentException("No such edge %d -> %d".formatted(source, target));
+            }
+            if (this.edgeCount == this.sources.length) {
+                int capacity = this.edgeCount * 2;
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+            }
+            this.sources[this.edgeCount] = source;
+            this.targets[this.edgeCount] = target;
+            this.weights[this.edgeCount] = weight;
+            this.edgeCount++;
+            return this;
+        }
+
+        Builder addEdges(int[] sources, int[] targets, double[] weights, int count) {
+            int required = this.edgeCount + count;
+            if (required > this.sources.length) {
+                int capacity = Math.max(required, this.sources.length * 2);
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+            }
+            System.arraycopy(sources, 0, this.sources, this.edgeCount, count);
+            System.arraycopy(targets, 0, this.targets, this.edgeCount, count);
+            System.arraycopy(weights, 0, this.weights, this.edgeCount, count);
+            this.edgeCount = required;
+            return this;
+        }
+
+        public CompactGraph build() {
+            return new CompactGraph(
+                    this.names.toArray(String[]::new),
+                    this.pack(this.sources, this.targets),
+                    this.pack(this.targets, this.sources)
+            );
+        }
+
+        private Adjacency pack(int[] from, int[] to) {
+            int vertexCount = this.names.size();
+            int[] offsets = new int[vertexCount + 1];
+            for (int i = 0; i < this.edgeCount; i++) {
+                offsets[from[i] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, vertexCount);
+            int[] packedTargets = new int[this.edgeCount];
+            double[] packedWeights = new double[this.edgeCount];
+            for (int i = 0; i < this.edgeCount; i++) {
+                int position = next[from[i]]++;
+                packedTargets[position] = to[i];
+                packedWeights[position] = this.weights[i];
+            }
+            return new Adjacency(offsets, packedTargets, packedWeights);
+        }
+    }
+}
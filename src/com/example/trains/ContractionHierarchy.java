@@ -0,0 +1,454 @@
+package com.example.trains;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+/**
+ * Contraction hierarchy built on top of a {@link CompactGraph}.
+ * Vertices are contracted one by one in order of edge difference; whenever removing a vertex would lengthen a
+ * shortest path between two of its remaining neighbours, a shortcut remembering the contracted middle vertex is
+ * added. Queries run a bidirectional search that only follows edges towards higher ranked vertices, and shortcuts
+ * are unpacked back into the original vertices afterwards.
+ */
+public final class ContractionHierarchy {
+    private static final int SIMULATION_SETTLE_LIMIT = 20;
+    private static final int CONTRACTION_SETTLE_LIMIT = 500;
+
+    private final int vertexCount;
+    private final int edgeCount;
+    private final long checksum;
+    private final int[] ranks;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddles;
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMiddles;
+
+    private ContractionHierarchy(CompactGraph graph, int[] ranks, Arcs[] upward, Arcs[] downward) {
+        this.vertexCount = graph.vertexCount();
+        this.edgeCount = graph.edgeCount();
+        this.checksum = graph.checksum();
+        this.ranks = ranks;
+        this.upOffsets = new int[this.vertexCount + 1];
+        this.downOffsets = new int[this.vertexCount + 1];
+        for (int v = 0; v < this.vertexCount; v++) {
+            this.upOffsets[v + 1] = this.upOffsets[v] + upward[v].size;
+            this.downOffsets[v + 1] = this.downOffsets[v] + downward[v].size;
+        }
+        this.upTargets = new int[this.upOffsets[this.vertexCount]];
+        this.upWeights = new double[this.upTargets.length];
+        this.upMiddles = new int[this.upTargets.length];
+        this.downSources = new int[this.downOffsets[this.vertexCount]];
+        this.downWeights = new double[this.downSources.length];
+        this.downMiddles = new int[this.downSources.length];
+        for (int v = 0; v < this.vertexCount; v++) {
+            upward[v].copyTo(this.upOffsets[v], this.upTargets, this.upWeights, this.upMiddles);
+            downward[v].copyTo(this.downOffsets[v], this.downSources, this.downWeights, this.downMiddles);
+        }
+    }
+
+    public static ContractionHierarchy build(CompactGraph graph) {
+        return new Contraction(graph).run();
+    }
+
+    /**
+     * Tells whether the hierarchy was built for {@code graph}: same counts and same checksum of its edges.
+     */
+    public boolean matches(CompactGraph graph) {
+        return graph.vertexCount() == this.vertexCount && graph.edgeCount() == this.edgeCount
+                && graph.checksum() == this.checksum;
+    }
+
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int middle : this.upMiddles) {
+            shortcuts += middle >= 0 ? 1 : 0;
+        }
+        for (int middle : this.downMiddles) {
+            shortcuts += middle >= 0 ? 1 : 0;
+        }
+        return shortcuts;
+    }
+
+    Route route(SearchContext forward, SearchContext backward, int source, int target) {
+        forward.start(source);
+        backward.start(target);
+        double best = source == target ? 0 : POSITIVE_INFINITY;
+        int meeting = source == target ? source : -1;
+        while (true) {
+            boolean forwardOpen = !forward.queue.isEmpty() && forward.queue.peekKey() < best;
+            boolean backwardOpen = !backward.queue.isEmpty() && backward.queue.peekKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            boolean forwardStep = forwardOpen
+                    && (!backwardOpen || forward.queue.peekKey() <= backward.queue.peekKey());
+            SearchContext self = forwardStep ? forward : backward;
+            SearchContext other = forwardStep ? backward : forward;
+            int current = self.queue.poll();
+            self.visited[current] = true;
+            self.settled++;
+            double candidate = self.distances[current] + other.distances[current];
+            if (candidate < best) {
+                best = candidate;
+                meeting = current;
+            }
+            if (forwardStep) {
+                relax(self, current, this.upOffsets, this.upTargets, this.upWeights);
+            } else {
+                relax(self, current, this.downOffsets, this.downSources, this.downWeights);
+            }
+        }
+        int settled = forward.settled + backward.settled;
+        if (meeting < 0) {
+            return new Route(source, target, new int[0], POSITIVE_INFINITY, settled);
+        }
+        int[] up = forward.pathTo(meeting);
+        IntList path = new IntList();
+        path.add(source);
+        for (int i = 1; i < up.length; i++) {
+            this.unpack(up[i - 1], up[i], path);
+        }
+        for (int v = meeting; backward.previous[v] >= 0; v = backward.previous[v]) {
+            this.unpack(v, backward.previous[v], path);
+        }
+        return new Route(source, target, path.toArray(), best, settled);
+    }
+
+    /**
+     * Distances from every source to every target with the bucket technique. A backward upward search from each
+     * target leaves a (target, distance) entry in the bucket of every vertex it settles; a forward upward search from
+     * each source then combines its distance to every vertex it settles with the entries of that bucket. Both run
+     * once per source or target and only explore their small upward search spaces, in parallel.
+     */
+    DistanceTable manyToMany(SearchContextPool contexts, int[] sources, int[] targets) {
+        double[] distances = DistanceTable.allocate(sources.length, targets.length);
+        int[][] spaces = new int[targets.length][];
+        double[][] spaceDistances = new double[targets.length][];
+        IntStream.range(0, targets.length).parallel().forEach(column -> {
+            SearchContext context = contexts.acquire();
+            try {
+                context.start(targets[column]);
+                while (!context.queue.isEmpty()) {
+                    int current = context.settleSparse();
+                    relax(context, current, this.downOffsets, this.downSources, this.downWeights);
+                }
+                int[] space = context.settledVertices();
+                double[] reached = new double[space.length];
+                for (int i = 0; i < space.length; i++) {
+                    reached[i] = context.distances[space[i]];
+                }
+                spaces[column] = space;
+                spaceDistances[column] = reached;
+            } finally {
+                contexts.release(context);
+            }
+        });
+        int[] bucketOffsets = new int[this.vertexCount + 1];
+        for (int[] space : spaces) {
+            for (int vertex : space) {
+                bucketOffsets[vertex + 1]++;
+            }
+        }
+        for (int v = 0; v < this.vertexCount; v++) {
+            bucketOffsets[v + 1] += bucketOffsets[v];
+        }
+        int[] next = Arrays.copyOf(bucketOffsets, this.vertexCount);
+        int[] bucketColumns = new int[bucketOffsets[this.vertexCount]];
+        double[] bucketDistances = new double[bucketColumns.length];
+        for (int column = 0; column < targets.length; column++) {
+            for (int i = 0; i < spaces[column].length; i++) {
+                int position = next[spaces[column][i]]++;
+                bucketColumns[position] = column;
+                bucketDistances[position] = spaceDistances[column][i];
+            }
+        }
+        IntStream.range(0, sources.length).parallel().forEach(row -> {
+            SearchContext context = contexts.acquire();
+            try {
+                int base = row * targets.length;
+                context.start(sources[row]);
+                while (!context.queue.isEmpty()) {
+                    int current = context.settleSparse();
+                    double distance = context.distances[current];
+                    for (int b = bucketOffsets[current], end = bucketOffsets[current + 1]; b < end; b++) {
+                        double candidate = distance + bucketDistances[b];
+                        if (candidate < distances[base + bucketColumns[b]]) {
+                            distances[base + bucketColumns[b]] = candidate;
+                        }
+                    }
+                    relax(context, current, this.upOffsets, this.upTargets, this.upWeights);
+                }
+            } finally {
+                contexts.release(context);
+            }
+        });
+        return new DistanceTable(sources, targets, distances);
+    }
+
+    private static void relax(SearchContext context, int current, int[] offsets, int[] targets, double[] weights) {
+        double distance = context.distances[current];
+        for (int e = offsets[current], end = offsets[current + 1]; e < end; e++) {
+            int next = targets[e];
+            double newDistance = distance + weights[e];
+            if (!context.visited[next] && newDistance < context.distances[next]) {
+                context.reach(next, newDistance, current);
+                context.queue.insertOrDecrease(next, newDistance);
+            }
+        }
+    }
+
+    private void unpack(int from, int to, IntList path) {
+        IntList stack = new IntList();
+        stack.add(to);
+        stack.add(from);
+        while (stack.size() > 0) {
+            int a = stack.removeLast();
+            int b = stack.removeLast();
+            int middle = this.middle(a, b);
+            if (middle < 0) {
+                path.add(b);
+            } else {
+                stack.add(b);
+                stack.add(middle);
+                stack.add(middle);
+                stack.add(a);
+            }
+        }
+    }
+
+    private int middle(int from, int to) {
+        if (this.ranks[from] < this.ranks[to]) {
+            for (int e = this.upOffsets[from]; e < this.upOffsets[from + 1]; e++) {
+                if (this.upTargets[e] == to) {
+                    return this.upMiddles[e];
+                }
+            }
+        } else {
+            for (int e = this.downOffsets[to]; e < this.downOffsets[to + 1]; e++) {
+                if (this.downSources[e] == from) {
+                    return this.downMiddles[e];
+                }
+            }
+        }
+        throw new IllegalStateException("No edge %d -> %d in hierarchy".formatted(from, to));
+    }
+
+    /**
+     * Adjacency list of one vertex during contraction, keeping a single, cheapest arc per neighbour.
+     */
+    private static final class Arcs {
+        private int[] vertices = new int[4];
+        private double[] weights = new double[4];
+        private int[] middles = new int[4];
+        private int size;
+
+        void put(int vertex, double weight, int middle) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.vertices[i] == vertex) {
+                    if (weight < this.weights[i]) {
+                        this.weights[i] = weight;
+                        this.middles[i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (this.size == this.vertices.length) {
+                this.vertices = Arrays.copyOf(this.vertices, this.size * 2);
+                this.weights = Arrays.copyOf(this.weights, this.size * 2);
+                this.middles = Arrays.copyOf(this.middles, this.size * 2);
+            }
+            this.vertices[this.size] = vertex;
+            this.weights[this.size] = weight;
+            this.middles[this.size] = middle;
+            this.size++;
+        }
+
+        void remove(int vertex) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.vertices[i] == vertex) {
+                    this.size--;
+                    this.vertices[i] = this.vertices[this.size];
+                    this.weights[i] = this.weights[this.size];
+                    this.middles[i] = this.middles[this.size];
+                    return;
+                }
+            }
+        }
+
+        double maxWeight() {
+            double max = 0;
+            for (int i = 0; i < this.size; i++) {
+                max = Math.max(max, this.weights[i]);
+            }
+            return max;
+        }
+
+        void copyTo(int offset, int[] vertices, double[] weights, int[] middles) {
+            System.arraycopy(this.vertices, 0, vertices, offset, this.size);
+            System.arraycopy(this.weights, 0, weights, offset, this.size);
+            System.arraycopy(this.middles, 0, middles, offset, this.size);
+        }
+    }
+
+    private static final class Contraction {
+        private final CompactGraph graph;
+        private final Arcs[] outgoing;
+        private final Arcs[] incoming;
+        private final int[] contractedNeighbours;
+        private final double[] witnessDistances;
+        private final boolean[] witnessTargets;
+        private final IntList touched = new IntList();
+        private final IndexedMinHeap witnessQueue;
+
+        Contraction(CompactGraph graph) {
+            int vertexCount = graph.vertexCount();
+            this.graph = graph;
+            this.outgoing = new Arcs[vertexCount];
+            this.incoming = new Arcs[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                this.outgoing[v] = new Arcs();
+                this.incoming[v] = new Arcs();
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                for (int e = graph.edgesStart(v); e < graph.edgesEnd(v); e++) {
+                    int w = graph.target(e);
+                    if (w != v) {
+                        this.outgoing[v].put(w, graph.weight(e), -1);
+                        this.incoming[w].put(v, graph.weight(e), -1);
+                    }
+                }
+            }
+            this.contractedNeighbours = new int[vertexCount];
+            this.witnessDistances = new double[vertexCount];
+            this.witnessTargets = new boolean[vertexCount];
+            Arrays.fill(this.witnessDistances, POSITIVE_INFINITY);
+            this.witnessQueue = new IndexedMinHeap(vertexCount);
+        }
+
+        ContractionHierarchy run() {
+            int vertexCount = this.graph.vertexCount();
+            IndexedMinHeap order = new IndexedMinHeap(vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                order.insertOrDecrease(v, this.priority(v));
+            }
+            int[] ranks = new int[vertexCount];
+            int rank = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                double priority = this.priority(v);
+                if (!order.isEmpty() && priority > order.peekKey()) {
+                    order.update(v, priority);
+                    continue;
+                }
+                ranks[v] = rank++;
+                Arcs in = this.incoming[v];
+                Arcs out = this.outgoing[v];
+                this.contract(v, false);
+                for (int i = 0; i < in.size; i++) {
+                    order.update(in.vertices[i], this.priority(in.vertices[i]));
+                }
+                for (int j = 0; j < out.size; j++) {
+                    order.update(out.vertices[j], this.priority(out.vertices[j]));
+                }
+            }
+            return new ContractionHierarchy(this.graph, ranks, this.outgoing, this.incoming);
+        }
+
+        private double priority(int v) {
+            int shortcuts = this.contract(v, true);
+            return shortcuts - this.outgoing[v].size - this.incoming[v].size + this.contractedNeighbours[v];
+        }
+
+        /**
+         * Counts, and unless simulating adds, the shortcuts needed to remove {@code v}. Once contracted, the arcs
+         * left on {@code v} all lead to higher ranked vertices and become its part of the upward graphs.
+         */
+        private int contract(int v, boolean simulate) {
+            Arcs in = this.incoming[v];
+            Arcs out = this.outgoing[v];
+            double maxOut = out.maxWeight();
+            int settleLimit = simulate ? SIMULATION_SETTLE_LIMIT : CONTRACTION_SETTLE_LIMIT;
+            for (int j = 0; j < out.size; j++) {
+                this.witnessTargets[out.vertices[j]] = true;
+            }
+            int shortcuts = 0;
+            for (int i = 0; i < in.size; i++) {
+                int u = in.vertices[i];
+                double toV = in.weights[i];
+                this.witnessSearch(u, v, toV + maxOut, out.size, settleLimit);
+                for (int j = 0; j < out.size; j++) {
+                    int w = out.vertices[j];
+                    double via = toV + out.weights[j];
+                    if (w == u || this.witnessDistances[w] <= via) {
+                        continue;
+                    }
+                    shortcuts++;
+                    if (!simulate) {
+                        this.outgoing[u].put(w, via, v);
+                        this.incoming[w].put(u, via, v);
+                    }
+                }
+                this.clearWitnessSearch();
+            }
+            for (int j = 0; j < out.size; j++) {
+                this.witnessTargets[out.vertices[j]] = false;
+            }
+            if (!simulate) {
+                for (int i = 0; i < in.size; i++) {
+                    this.outgoing[in.vertices[i]].remove(v);
+                    this.contractedNeighbours[in.vertices[i]]++;
+                }
+                for (int j = 0; j < out.size; j++) {
+                    this.incoming[out.vertices[j]].remove(v);
+                    this.contractedNeighbours[out.vertices[j]]++;
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Dijkstra from {@code source} avoiding {@code excluded}, stopped past {@code limit}, after settling all
+         * the witness targets or after {@code settleLimit} vertices. Stopping early can only add shortcuts that
+         * were not strictly needed.
+         */
+        private void witnessSearch(int source, int excluded, double limit, int targets, int settleLimit) {
+            this.witnessDistances[source] = 0;
+            this.touched.add(source);
+            this.witnessQueue.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!this.witnessQueue.isEmpty() && this.witnessQueue.peekKey() <= limit
+                    && targets > 0 && settled++ < settleLimit) {
+                int current = this.witnessQueue.poll();
+                if (this.witnessTargets[current]) {
+                    targets--;
+                }
+                Arcs arcs = this.outgoing[current];
+                for (int i = 0; i < arcs.size; i++) {
+                    int next = arcs.vertices[i];
+                    double distance = this.witnessDistances[current] + arcs.weights[i];
+                    if (next != excluded && distance < this.witnessDistances[next]) {
+                        if (this.witnessDistances[next] == POSITIVE_INFINITY) {
+                            this.touched.add(next);
+                        }
+                        this.witnessDistances[next] = distance;
+                        this.witnessQueue.insertOrDecrease(next, distance);
+                    }
+                }
+            }
+        }
+
+        private void clearWitnessSearch() {
+            for (int i = 0; i < this.touched.size(); i++) {
+                this.witnessDistances[this.touched.get(i)] = POSITIVE_INFINITY;
+            }
+            this.touched.clear();
+            this.witnessQueue.clear();
+        }
+    }
+}
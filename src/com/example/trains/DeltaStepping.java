@@ -0,0 +1,233 @@
+package com.example.trains;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+/**
+ * Parallel single-source search by delta-stepping.
+ * Tentative distances are kept in buckets of width delta. The lowest bucket is emptied by relaxing light edges
+ * (weight at most delta) of its vertices in parallel, until no vertex falls back into it; heavy edges of all the
+ * vertices it settled are then relaxed once, also in parallel. Distances are stored as the raw bits of non-negative
+ * doubles, whose order is the numeric order, so concurrent improvements are lock-free compare-and-set minima.
+ * Predecessors are rebuilt afterwards from the tight edges, which gives the same distances as Dijkstra's algorithm
+ * and a valid shortest-path tree, although ties may pick a different predecessor.
+ */
+final class DeltaStepping {
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 10;
+    private static final int SAMPLE_SIZE = 1 << 12;
+    private static final long INFINITY_BITS = Double.doubleToRawLongBits(POSITIVE_INFINITY);
+
+    private final AtomicLongArray distances;
+    private final int[] frontierStamps;
+    private final int[] settledStamps;
+    private int frontierStamp;
+    private int settledStamp;
+    private CompactGraph tunedFor;
+    private double delta;
+    long relaxedEdges;
+    long improvedEdges;
+    long queueOperations;
+
+    DeltaStepping(int vertexCount) {
+        this.distances = new AtomicLongArray(vertexCount);
+        this.frontierStamps = new int[vertexCount];
+        this.settledStamps = new int[vertexCount];
+    }
+
+    /**
+     * Bucket width: the 99th percentile of a sample of edge weights divided by the average degree, the classic
+     * choice for random weights that keeps the number of re-relaxations low without serialising on tiny buckets.
+     */
+    static double tune(CompactGraph graph) {
+        int edgeCount = graph.edgeCount();
+        if (edgeCount == 0) {
+            return 1;
+        }
+        int samples = Math.min(edgeCount, SAMPLE_SIZE);
+        double[] weights = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            weights[i] = graph.weight((int) ((long) i * edgeCount / samples));
+        }
+        Arrays.sort(weights);
+        double high = weights[(int) (0.99 * (samples - 1))];
+        double averageDegree = Math.max(1, (double) edgeCount / graph.vertexCount());
+        double delta = high / averageDegree;
+        return delta > 0 ? delta : Math.max(weights[samples - 1], 1);
+    }
+
+    void search(CompactGraph graph, int source, double[] resultDistances, int[] previous) {
+        if (this.tunedFor != graph) {
+            this.delta = tune(graph);
+            this.tunedFor = graph;
+        }
+        int vertexCount = graph.vertexCount();
+        for (int v = 0; v < vertexCount; v++) {
+            this.distances.setPlain(v, INFINITY_BITS);
+        }
+        this.distances.set(source, Double.doubleToRawLongBits(0));
+        this.relaxedEdges = 0;
+        this.improvedEdges = 0;
+        this.queueOperations = 1;
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        buckets.computeIfAbsent(0L, ignore -> new IntList()).add(source);
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntList> lowest = buckets.pollFirstEntry();
+            long bucket = lowest.getKey();
+            IntList settled = new IntList();
+            this.settledStamp++;
+            IntList pending = lowest.getValue();
+            while (pending != null) {
+                int[] frontier = this.frontier(pending, bucket, settled);
+                this.insert(buckets, this.relax(graph, frontier, true));
+                pending = buckets.remove(bucket);
+            }
+            this.insert(buckets, this.relax(graph, settled.toArray(), false));
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            resultDistances[v] = Double.longBitsToDouble(this.distances.getPlain(v));
+        }
+        predecessors(graph, source, resultDistances, previous);
+    }
+
+    private int[] frontier(IntList pending, long bucket, IntList settled) {
+        int current = ++this.frontierStamp;
+        IntList frontier = new IntList(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            int vertex = pending.get(i);
+            if (this.frontierStamps[vertex] != current && this.bucketOf(vertex) == bucket) {
+                this.frontierStamps[vertex] = current;
+                frontier.add(vertex);
+                if (this.settledStamps[vertex] != this.settledStamp) {
+                    this.settledStamps[vertex] = this.settledStamp;
+                    settled.add(vertex);
+                }
+            }
+        }
+        return frontier.toArray();
+    }
+
+    private long bucketOf(int vertex) {
+        return (long) (Double.longBitsToDouble(this.distances.get(vertex)) / this.delta);
+    }
+
+    private List<Relaxed> relax(CompactGraph graph, int[] vertices, boolean light) {
+        if (vertices.length <= SEQUENTIAL_THRESHOLD) {
+            return List.of(this.relax(graph, vertices, 0, vertices.length, light));
+        }
+        int chunks = Math.min(vertices.length / SEQUENTIAL_THRESHOLD, 4 * ForkJoinPool.getCommonPoolParallelism());
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(c -> this.relax(graph, vertices,
+                        (int) ((long) c * vertices.length / chunks),
+                        (int) ((long) (c + 1) * vertices.length / chunks), light))
+                .toList();
+    }
+
+    private Relaxed relax(CompactGraph graph, int[] vertices, int from, int to, boolean light) {
+        IntList improved = new IntList();
+        long relaxed = 0;
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        for (int i = from; i < to; i++) {
+            int vertex = vertices[i];
+            double distance = Double.longBitsToDouble(this.distances.get(vertex));
+            for (int e = graph.offsets[vertex], end = graph.offsets[vertex + 1]; e < end; e++) {
+                if (weights[e] <= this.delta == light) {
+                    relaxed++;
+                    if (this.lower(targets[e], distance + weights[e])) {
+                        improved.add(targets[e]);
+                    }
+                }
+            }
+        }
+        return new Relaxed(improved, relaxed);
+    }
+
+    private boolean lower(int vertex, double distance) {
+        long bits = Double.doubleToRawLongBits(distance);
+        long current = this.distances.get(vertex);
+        while (bits < current) {
+            long witness = this.distances.compareAndExchange(vertex, current, bits);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private void insert(TreeMap<Long, IntList> buckets, List<Relaxed> relaxed) {
+        for (Relaxed chunk : relaxed) {
+            IntList vertices = chunk.improved();
+            this.relaxedEdges += chunk.relaxedEdges();
+            this.improvedEdges += vertices.size();
+            this.queueOperations += vertices.size();
+            for (int i = 0; i < vertices.size(); i++) {
+                int vertex = vertices.get(i);
+                buckets.computeIfAbsent(this.bucketOf(vertex), ignore -> new IntList()).add(vertex);
+            }
+        }
+    }
+
+    /**
+     * Picks, for every reached vertex, the in-neighbour with the smallest distance among those on a tight edge. Only
+     * vertices reached through zero-weight edges have no strictly closer tight in-neighbour; they are attached by a
+     * search from the vertices already in the tree, so that the predecessors never form a cycle.
+     */
+    private static void predecessors(CompactGraph graph, int source, double[] distances, int[] previous) {
+        CompactGraph reverse = graph.reverse();
+        IntStream.range(0, graph.vertexCount())
+                .parallel()
+                .forEach(v -> previous[v] = distances[v] == POSITIVE_INFINITY ? -1 : closestTight(reverse, distances, v));
+        previous[source] = -1;
+        int[] unattached = IntStream.range(0, graph.vertexCount())
+                .parallel()
+                .filter(v -> v != source && previous[v] < 0 && distances[v] != POSITIVE_INFINITY)
+                .toArray();
+        IntList attached = new IntList();
+        for (int vertex : unattached) {
+            for (int e = reverse.edgesStart(vertex), end = reverse.edgesEnd(vertex); e < end; e++) {
+                int u = reverse.target(e);
+                if ((u == source || previous[u] >= 0) && distances[u] + reverse.weight(e) == distances[vertex]) {
+                    previous[vertex] = u;
+                    attached.add(vertex);
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < attached.size(); i++) {
+            int vertex = attached.get(i);
+            for (int e = graph.edgesStart(vertex), end = graph.edgesEnd(vertex); e < end; e++) {
+                int next = graph.target(e);
+                if (next != source && previous[next] < 0 && distances[vertex] + graph.weight(e) == distances[next]) {
+                    previous[next] = vertex;
+                    attached.add(next);
+                }
+            }
+        }
+    }
+
+    private static int closestTight(CompactGraph reverse, double[] distances, int vertex) {
+        int best = -1;
+        for (int e = reverse.edgesStart(vertex), end = reverse.edgesEnd(vertex); e < end; e++) {
+            int u = reverse.target(e);
+            if (distances[u] < distances[vertex] && distances[u] + reverse.weight(e) == distances[vertex]
+                    && (best < 0 || distances[u] < distances[best] || distances[u] == distances[best] && u < best)) {
+                best = u;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Vertices whose distance a chunk of relaxations lowered, and how many edges it relaxed.
+     */
+    private record Relaxed(IntList improved, long relaxedEdges) {}
+}
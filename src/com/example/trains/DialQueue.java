@@ -0,0 +1,108 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+/**
+ * Monotone priority queue of vertex indices with integer keys, after Dial: one bucket per key modulo the largest
+ * edge weight plus one, each an intrusive doubly linked list so that decrease-key is a constant-time move.
+ * Keys must never be smaller than the last key polled nor exceed it by more than the largest edge weight, which is
+ * the case in Dijkstra's algorithm on non-negative integer weights.
+ */
+final class DialQueue {
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    private final int[] next;
+    private final int[] previous;
+    private final int[] keys;
+    private int[] heads = new int[0];
+    private int[] preparedFor;
+    private int size;
+    private int minimum;
+
+    DialQueue(int capacity) {
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(this.keys, -1);
+    }
+
+    /**
+     * Empties the queue and sizes the buckets for the given edge weights. A queue polled until empty is already
+     * clear, so this only walks the buckets when the weights change or the last search was abandoned.
+     */
+    void reset(int[] weights) {
+        if (this.size > 0) {
+            for (int bucket = 0; bucket < this.heads.length; bucket++) {
+                for (int index = this.heads[bucket]; index >= 0; index = this.next[index]) {
+                    this.keys[index] = -1;
+                }
+                this.heads[bucket] = -1;
+            }
+        }
+        if (this.preparedFor != weights) {
+            int maxWeight = 0;
+            for (int weight : weights) {
+                maxWeight = Math.max(maxWeight, weight);
+            }
+            if (maxWeight >= MAX_BUCKETS) {
+                throw new IllegalStateException("Edge weight %d is too large for a bucket queue".formatted(maxWeight));
+            }
+            this.heads = new int[maxWeight + 1];
+            Arrays.fill(this.heads, -1);
+            this.preparedFor = weights;
+        }
+        this.size = 0;
+        this.minimum = 0;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    void insertOrDecrease(int index, int key) {
+        int current = this.keys[index];
+        if (current >= 0) {
+            if (key >= current) {
+                return;
+            }
+            this.unlink(index);
+        } else {
+            this.size++;
+        }
+        this.keys[index] = key;
+        int bucket = key % this.heads.length;
+        int head = this.heads[bucket];
+        this.next[index] = head;
+        this.previous[index] = -1;
+        if (head >= 0) {
+            this.previous[head] = index;
+        }
+        this.heads[bucket] = index;
+    }
+
+    int poll() {
+        int bucket = this.minimum % this.heads.length;
+        while (this.heads[bucket] < 0) {
+            this.minimum++;
+            bucket = bucket + 1 == this.heads.length ? 0 : bucket + 1;
+        }
+        int index = this.heads[bucket];
+        this.unlink(index);
+        this.keys[index] = -1;
+        this.size--;
+        return index;
+    }
+
+    private void unlink(int index) {
+        int before = this.previous[index];
+        int after = this.next[index];
+        if (before >= 0) {
+            this.next[before] = after;
+        } else {
+            this.heads[this.keys[index] % this.heads.length] = after;
+        }
+        if (after >= 0) {
+            this.previous[after] = before;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Distances and predecessors from a set of source vertices to every vertex, stored row-major: row {@code r} holds
+ * the shortest-path tree of {@code sources[r]}. Rows are computed in parallel on the common fork-join pool.
+ */
+public final class DistanceMatrix {
+    private final int[] sources;
+    private final int columns;
+    private final double[] distances;
+    private final int[] predecessors;
+
+    private DistanceMatrix(int[] sources, int columns, double[] distances, int[] predecessors) {
+        this.sources = sources;
+        this.columns = columns;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    static DistanceMatrix compute(CompactGraph graph, SearchContextPool contexts, int[] sources) {
+        int columns = graph.vertexCount();
+        long cells = (long) sources.length * columns;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A %d x %d matrix does not fit in memory, write it to a file instead"
+                    .formatted(sources.length, columns));
+        }
+        double[] distances = new double[(int) cells];
+        int[] predecessors = new int[(int) cells];
+        IntStream.range(0, sources.length).parallel().forEach(row -> {
+            SearchContext context = contexts.acquire();
+            try {
+                context.search(graph, sources[row], SearchStrategy.BINARY_HEAP);
+                System.arraycopy(context.distances, 0, distances, row * columns, columns);
+                System.arraycopy(context.previous, 0, predecessors, row * columns, columns);
+            } finally {
+                contexts.release(context);
+            }
+        });
+        return new DistanceMatrix(sources.clone(), columns, distances, predecessors);
+    }
+
+    /**
+     * Streams the matrix to {@code path} without keeping it in memory. The file holds the row and column counts as
+     * two big-endian ints, then every distance as a double, row after row, then every predecessor as an int.
+     */
+    static void write(CompactGraph graph, SearchContextPool contexts, int[] sources, Path path) {
+        int columns = graph.vertexCount();
+        long header = 2L * Integer.BYTES;
+        long predecessorsStart = header + (long) sources.length * columns * Double.BYTES;
+        try (FileChannel channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES * 2).putInt(sources.length).putInt(columns).flip(), 0);
+            IntStream.range(0, sources.length).parallel().forEach(row -> {
+                SearchContext context = contexts.acquire();
+                try {
+                    context.search(graph, sources[row], SearchStrategy.BINARY_HEAP);
+                    ByteBuffer distances = ByteBuffer.allocate(columns * Double.BYTES);
+                    distances.asDoubleBuffer().put(context.distances);
+                    ByteBuffer predecessors = ByteBuffer.allocate(columns * Integer.BYTES);
+                    predecessors.asIntBuffer().put(context.previous);
+                    writeFully(channel, distances, header + (long) row * columns * Double.BYTES);
+                    writeFully(channel, predecessors, predecessorsStart + (long) row * columns * Integer.BYTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    contexts.release(context);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public int rows() {
+        return sources.length;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int source(int row) {
+        return sources[row];
+    }
+
+    public double distance(int row, int column) {
+        return distances[row * columns + column];
+    }
+
+    public int predecessor(int row, int column) {
+        return predecessors[row * columns + column];
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.trains;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Distances from a set of source vertices to a set of target vertices, stored row-major in one array: the cell of
+ * row {@code r} and column {@code c} holds the distance from {@code sources[r]} to {@code targets[c]}, infinite
+ * when the target cannot be reached.
+ */
+public final class DistanceTable {
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] distances;
+
+    DistanceTable(int[] sources, int[] targets, double[] distances) {
+        this.sources = sources;
+        this.targets = targets;
+        this.distances = distances;
+    }
+
+    static double[] allocate(int rows, int columns) {
+        long cells = (long) rows * columns;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A %d x %d table does not fit in memory".formatted(rows, columns));
+        }
+        double[] distances = new double[(int) cells];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        return distances;
+    }
+
+    /**
+     * Computes the table with one search per source on the common fork-join pool, each stopping as soon as every
+     * target is settled. Used when no contraction hierarchy is prepared.
+     */
+    static DistanceTable compute(CompactGraph graph, SearchContextPool contexts, int[] sources, int[] targets) {
+        double[] distances = allocate(sources.length, targets.length);
+        boolean[] wanted = new boolean[graph.vertexCount()];
+        int distinct = 0;
+        for (int target : targets) {
+            if (!wanted[target]) {
+                wanted[target] = true;
+                distinct++;
+            }
+        }
+        int targetCount = distinct;
+        IntStream.range(0, sources.length).parallel().forEach(row -> {
+            SearchContext context = contexts.acquire();
+            try {
+                context.start(sources[row]);
+                int remaining = targetCount;
+                while (remaining > 0 && !context.queue.isEmpty()) {
+                    if (wanted[context.settleNext(graph)]) {
+                        remaining--;
+                    }
+                }
+                for (int column = 0; column < targets.length; column++) {
+                    distances[row * targets.length + column] = context.distances[targets[column]];
+                }
+            } finally {
+                contexts.release(context);
+            }
+        });
+        return new DistanceTable(sources, targets, distances);
+    }
+
+    public int[] getSources() {
+        return sources.clone();
+    }
+
+    public int[] getTargets() {
+        return targets.clone();
+    }
+
+    public int rows() {
+        return sources.length;
+    }
+
+    public int columns() {
+        return targets.length;
+    }
+
+    public double getDistance(int row, int column) {
+        return distances[row * targets.length + column];
+    }
+}
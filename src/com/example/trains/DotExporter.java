@@ -0,0 +1,136 @@
+package com.example.trains;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a graph, or part of it, in the dot format through a byte buffer, one {@code "a" -> "b" [w=...]} line per
+ * edge. Files whose name ends with {@code .gz} are gzip-compressed.
+ */
+final class DotExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] HEADER = ("digraph {" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FOOTER = ("}" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARROW = " -> ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEIGHT = " [w=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = {']'};
+
+    private final CompactGraph graph;
+    private final OutputBuffer output = new OutputBuffer(BUFFER_SIZE);
+    private final byte[][] names;
+
+    private DotExporter(CompactGraph graph, OutputStream output) {
+        this.graph = graph;
+        this.output.open(output);
+        this.names = new byte[graph.vertexCount()][];
+    }
+
+    static OutputStream open(String filename) throws IOException {
+        if (filename.endsWith(".gz")) {
+            return new GZIPOutputStream(new FileOutputStream(filename), BUFFER_SIZE);
+        }
+        String withExtension = filename.endsWith(".dot") ? filename : filename.concat(".dot");
+        return new BufferedOutputStream(new FileOutputStream(withExtension), BUFFER_SIZE);
+    }
+
+    static void writeGraph(CompactGraph graph, OutputStream output) throws IOException {
+        DotExporter exporter = new DotExporter(graph, output);
+        exporter.output.put(HEADER);
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int e = graph.edgesStart(v), end = graph.edgesEnd(v); e < end; e++) {
+                exporter.edge(v, graph.target(e), graph.weight(e));
+            }
+        }
+        exporter.finish();
+    }
+
+    /**
+     * Writes the edges of the shortest-path tree: for every reached vertex, the cheapest edge from its predecessor.
+     */
+    static void writeTree(ShortestPathTree tree, OutputStream output) throws IOException {
+        CompactGraph graph = tree.getGraph();
+        DotExporter exporter = new DotExporter(graph, output);
+        exporter.output.put(HEADER);
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int previous = tree.getPrevious(v);
+            if (previous < 0) {
+                continue;
+            }
+            double weight = Double.POSITIVE_INFINITY;
+            for (int e = graph.edgesStart(previous), end = graph.edgesEnd(previous); e < end; e++) {
+                if (graph.target(e) == v) {
+                    weight = Math.min(weight, graph.weight(e));
+                }
+            }
+            exporter.edge(previous, v, weight);
+        }
+        exporter.finish();
+    }
+
+    /**
+     * Writes the edges between the vertices reachable from {@code center} in at most {@code hops} edges.
+     */
+    static void writeNeighbourhood(CompactGraph graph, int center, int hops, OutputStream output) throws IOException {
+        int[] depth = new int[graph.vertexCount()];
+        Arrays.fill(depth, -1);
+        IntList reached = new IntList();
+        depth[center] = 0;
+        reached.add(center);
+        for (int i = 0; i < reached.size(); i++) {
+            int vertex = reached.get(i);
+            if (depth[vertex] == hops) {
+                continue;
+            }
+            for (int e = graph.edgesStart(vertex), end = graph.edgesEnd(vertex); e < end; e++) {
+                int target = graph.target(e);
+                if (depth[target] < 0) {
+                    depth[target] = depth[vertex] + 1;
+                    reached.add(target);
+                }
+            }
+        }
+        int[] vertices = reached.toArray();
+        Arrays.sort(vertices);
+        DotExporter exporter = new DotExporter(graph, output);
+        exporter.output.put(HEADER);
+        for (int vertex : vertices) {
+            for (int e = graph.edgesStart(vertex), end = graph.edgesEnd(vertex); e < end; e++) {
+                if (depth[graph.target(e)] >= 0) {
+                    exporter.edge(vertex, graph.target(e), graph.weight(e));
+                }
+            }
+        }
+        exporter.finish();
+    }
+
+    private void edge(int source, int target, double weight) throws IOException {
+        this.output.put(this.name(source));
+        this.output.put(ARROW);
+        this.output.put(this.name(target));
+        this.output.put(WEIGHT);
+        this.output.putFixed(weight, 6);
+        this.output.put(END);
+        this.output.put(OutputBuffer.LINE_SEPARATOR);
+    }
+
+    private void finish() throws IOException {
+        this.output.put(FOOTER);
+        this.output.flush();
+        this.output.close();
+    }
+
+    private byte[] name(int vertex) {
+        byte[] quoted = this.names[vertex];
+        if (quoted == null) {
+            String name = this.graph.name(vertex).replace("\\", "\\\\").replace("\"", "\\\"");
+            quoted = ('"' + name + '"').getBytes(StandardCharsets.UTF_8);
+            this.names[vertex] = quoted;
+        }
+        return quoted;
+    }
+}
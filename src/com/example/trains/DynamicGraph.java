@@ -0,0 +1,277 @@
+package com.example.trains;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mutable copy of a {@link CompactGraph} whose edges can be inserted, updated and removed.
+ * Tracked shortest-path trees are repaired after every change by re-settling only the vertices whose distance
+ * actually changes: an improvement is propagated from the head of the edge, while a worse or removed tree edge
+ * detaches the subtree below it, which is then reattached from its unaffected in-neighbours. Edges between the
+ * same pair of vertices are updated and removed together.
+ */
+public final class DynamicGraph {
+    private final String[] names;
+    private final ArcList[] outgoing;
+    private final ArcList[] incoming;
+    private final List<IncrementalShortestPathTree> trees = new ArrayList<>();
+    private final IndexedMinHeap queue;
+    private final IntList affected = new IntList();
+    private int edgeCount;
+    private long version;
+    private CompactGraph snapshot;
+    private long snapshotVersion;
+
+    public DynamicGraph(CompactGraph graph) {
+        int vertexCount = graph.vertexCount();
+        this.names = new String[vertexCount];
+        this.outgoing = new ArcList[vertexCount];
+        this.incoming = new ArcList[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            this.names[v] = graph.name(v);
+            this.outgoing[v] = new ArcList(graph.edgesEnd(v) - graph.edgesStart(v));
+            this.incoming[v] = new ArcList(graph.reverse().edgesEnd(v) - graph.reverse().edgesStart(v));
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            for (int e = graph.edgesStart(v), end = graph.edgesEnd(v); e < end; e++) {
+                this.outgoing[v].add(graph.target(e), graph.weight(e));
+                this.incoming[graph.target(e)].add(v, graph.weight(e));
+            }
+        }
+        this.edgeCount = graph.edgeCount();
+        this.queue = new IndexedMinHeap(vertexCount);
+        this.snapshot = graph;
+        this.snapshotVersion = 0;
+    }
+
+    public int vertexCount() {
+        return this.names.length;
+    }
+
+    public synchronized int edgeCount() {
+        return this.edgeCount;
+    }
+
+    /**
+     * Number of changes applied since this graph was created.
+     */
+    public synchronized long version() {
+        return this.version;
+    }
+
+    public synchronized void insertEdge(int source, int target, double weight) {
+        this.checkEdge(source, target);
+        checkWeight(weight);
+        this.outgoing[source].add(target, weight);
+        this.incoming[target].add(source, weight);
+        this.edgeCount++;
+        this.changed(source, target);
+    }
+
+    public synchronized void updateEdge(int source, int target, double weight) {
+        this.checkEdge(source, target);
+        checkWeight(weight);
+        if (this.outgoing[source].set(target, weight) == 0) {
+            throw new IllegalArgumentException("No such edge %d -> %d".formatted(source, target));
+        }
+        this.incoming[target].set(source, weight);
+        this.changed(source, target);
+    }
+
+    public synchronized void removeEdge(int source, int target) {
+        this.checkEdge(source, target);
+        int removed = this.outgoing[source].remove(target);
+        if (removed == 0) {
+            throw new IllegalArgumentException("No such edge %d -> %d".formatted(source, target));
+        }
+        this.incoming[target].remove(source);
+        this.edgeCount -= removed;
+        this.changed(source, target);
+    }
+
+    /**
+     * Computes the shortest-path tree from {@code source} and keeps it up to date with every later change.
+     */
+    public synchronized IncrementalShortestPathTree track(int source) {
+        if (source < 0 || source >= this.names.length) {
+            throw new IllegalArgumentException("No such vertex %d".formatted(source));
+        }
+        IncrementalShortestPathTree tree = new IncrementalShortestPathTree(this, source, this.names.length);
+        tree.distances[source] = 0;
+        this.queue.insertOrDecrease(source, 0);
+        tree.settled = this.propagate(tree);
+        this.trees.add(tree);
+        return tree;
+    }
+
+    public synchronized void untrack(IncrementalShortestPathTree tree) {
+        this.trees.remove(tree);
+    }
+
+    /**
+     * Immutable view of the current edges, rebuilt only when the graph changed since the previous call.
+     */
+    public synchronized CompactGraph toCompactGraph() {
+        if (this.snapshotVersion != this.version) {
+            CompactGraph.Builder builder = CompactGraph.builder();
+            for (String name : this.names) {
+                builder.addVertex(name);
+            }
+            for (int v = 0; v < this.names.length; v++) {
+                ArcList arcs = this.outgoing[v];
+                for (int i = 0; i < arcs.size; i++) {
+                    builder.addEdge(v, arcs.vertices[i], arcs.weights[i]);
+                }
+            }
+            this.snapshot = builder.build();
+            this.snapshotVersion = this.version;
+        }
+        return this.snapshot;
+    }
+
+    private void checkEdge(int source, int target) {
+        if (source < 0 || source >= this.names.length || target < 0 || target >= this.names.length) {
+            throw new IllegalArgumentException("No such edge %d -> %d".formatted(source, target));
+        }
+    }
+
+    private static void checkWeight(double weight) {
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException("Edge weight must be non-negative, got %s".formatted(weight));
+        }
+    }
+
+    private void changed(int source, int target) {
+        this.version++;
+        double weight = this.outgoing[source].min(target);
+        for (IncrementalShortestPathTree tree : this.trees) {
+            tree.settled = this.repair(tree, source, target, weight);
+        }
+    }
+
+    private int repair(IncrementalShortestPathTree tree, int source, int target, double weight) {
+        double[] distances = tree.distances;
+        int[] previous = tree.previous;
+        double candidate = distances[source] + weight;
+        if (candidate < distances[target]) {
+            distances[target] = candidate;
+            previous[target] = source;
+            this.queue.insertOrDecrease(target, candidate);
+            return this.propagate(tree);
+        }
+        if (previous[target] != source || candidate == distances[target]) {
+            return 0;
+        }
+        IntList subtree = this.affected;
+        subtree.clear();
+        subtree.add(target);
+        previous[target] = -1;
+        for (int i = 0; i < subtree.size(); i++) {
+            int vertex = subtree.get(i);
+            ArcList arcs = this.outgoing[vertex];
+            for (int a = 0; a < arcs.size; a++) {
+                int next = arcs.vertices[a];
+                if (previous[next] == vertex) {
+                    previous[next] = -1;
+                    subtree.add(next);
+                }
+            }
+        }
+        for (int i = 0; i < subtree.size(); i++) {
+            distances[subtree.get(i)] = Double.POSITIVE_INFINITY;
+        }
+        for (int i = 0; i < subtree.size(); i++) {
+            int vertex = subtree.get(i);
+            ArcList arcs = this.incoming[vertex];
+            for (int a = 0; a < arcs.size; a++) {
+                double distance = distances[arcs.vertices[a]] + arcs.weights[a];
+                if (distance < distances[vertex]) {
+                    distances[vertex] = distance;
+                    previous[vertex] = arcs.vertices[a];
+                }
+            }
+            if (distances[vertex] != Double.POSITIVE_INFINITY) {
+                this.queue.insertOrDecrease(vertex, distances[vertex]);
+            }
+        }
+        return this.propagate(tree);
+    }
+
+    private int propagate(IncrementalShortestPathTree tree) {
+        double[] distances = tree.distances;
+        int[] previous = tree.previous;
+        int settled = 0;
+        while (!this.queue.isEmpty()) {
+            int current = this.queue.poll();
+            settled++;
+            ArcList arcs = this.outgoing[current];
+            for (int a = 0; a < arcs.size; a++) {
+                int next = arcs.vertices[a];
+                double distance = distances[current] + arcs.weights[a];
+                if (distance < distances[next]) {
+                    distances[next] = distance;
+                    previous[next] = current;
+                    this.queue.insertOrDecrease(next, distance);
+                }
+            }
+        }
+        return settled;
+    }
+
+    private static final class ArcList {
+        private int[] vertices;
+        private double[] weights;
+        private int size;
+
+        ArcList(int capacity) {
+            this.vertices = new int[Math.max(capacity, 1)];
+            this.weights = new double[Math.max(capacity, 1)];
+        }
+
+        void add(int vertex, double weight) {
+            if (this.size == this.vertices.length) {
+                this.vertices = Arrays.copyOf(this.vertices, this.size * 2);
+                this.weights = Arrays.copyOf(this.weights, this.size * 2);
+            }
+            this.vertices[this.size] = vertex;
+            this.weights[this.size] = weight;
+            this.size++;
+        }
+
+        int set(int vertex, double weight) {
+            int count = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (this.vertices[i] == vertex) {
+                    this.weights[i] = weight;
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        int remove(int vertex) {
+            int kept = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (this.vertices[i] != vertex) {
+                    this.vertices[kept] = this.vertices[i];
+                    this.weights[kept] = this.weights[i];
+                    kept++;
+                }
+            }
+            int removed = this.size - kept;
+            this.size = kept;
+            return removed;
+        }
+
+        double min(int vertex) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < this.size; i++) {
+                if (this.vertices[i] == vertex) {
+                    min = Math.min(min, this.weights[i]);
+                }
+            }
+            return min;
+        }
+    }
+}
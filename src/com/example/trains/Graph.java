@@ -1,135 +1,460 @@
 package com.example.trains;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
-import static java.lang.Double.POSITIVE_INFINITY;
-import static java.lang.Double.parseDouble;
-import static java.lang.Integer.parseInt;
-import static java.util.Arrays.stream;
-import static java.util.Comparator.comparing;
-import static java.util.function.Predicate.not;
-
-public class Graph {
+public class Graph implements ShortestPaths {
+    private CompactGraph adjacency;
     private Vertex[] vertices;
+    private NameIndex names;
+    private SearchContextPool contexts;
+    private volatile SearchStrategy strategy = SearchStrategy.BINARY_HEAP;
+    private volatile Landmarks landmarks;
+    private volatile ContractionHierarchy hierarchy;
+    private volatile ShortestPathCache cache;
+    private volatile DynamicGraph dynamic;
+    private volatile boolean reordering;
+    private volatile VertexOrder order;
+    private volatile QueryMetrics metrics = QueryMetrics.NONE;
+    private final AtomicReference<ResultWriter> writer = new AtomicReference<>();
+
+    public SearchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Selects the algorithm of {@link #distancesFrom}. {@link SearchStrategy#DIAL} works on whole minutes: the edge
+     * weights are converted when it is selected or when a graph is loaded, and the conversion fails with an
+     * {@link IllegalStateException} if a weight cannot be represented exactly.
+     */
+    public void setStrategy(SearchStrategy strategy) {
+        if (strategy == SearchStrategy.DIAL && this.adjacency != null) {
+            this.adjacency().minutes();
+        }
+        this.strategy = strategy;
+    }
+
+    public boolean isReordering() {
+        return reordering;
+    }
+
+    /**
+     * Runs {@link #distancesFrom} and {@link #isochrone} on a copy of the graph renumbered in reverse Cuthill-McKee
+     * order, which stores adjacent stations near each other. Results are mapped back, so vertex indices keep
+     * following the {@code input.txt} convention; among equally short paths, another predecessor may be chosen.
+     */
+    public void setReordering(boolean reordering) {
+        this.reordering = reordering;
+    }
+
+    private VertexOrder order(CompactGraph graph) {
+        if (!this.reordering) {
+            return null;
+        }
+        VertexOrder current = this.order;
+        if (current == null || current.source != graph) {
+            synchronized (this) {
+                current = this.order;
+                if (current == null || current.source != graph) {
+                    current = VertexOrder.reverseCuthillMcKee(graph);
+                    this.order = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public CompactGraph getAdjacency() {
+        return this.adjacency();
+    }
+
+    private CompactGraph adjacency() {
+        DynamicGraph edges = this.dynamic;
+        return edges == null ? this.adjacency : edges.toCompactGraph();
+    }
+
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(QueryMetrics metrics) {
+        this.metrics = metrics == null ? QueryMetrics.NONE : metrics;
+    }
+
+    public ShortestPathCache getCache() {
+        return cache;
+    }
+
+    public void setCache(ShortestPathCache cache) {
+        if (cache != null) {
+            cache.invalidate();
+        }
+        this.cache = cache;
+    }
+
+    public Landmarks getLandmarks() {
+        return landmarks;
+    }
+
+    public void setLandmarks(Landmarks landmarks) {
+        if (landmarks != null && !landmarks.matches(this.adjacency())) {
+            throw new IllegalArgumentException("Landmarks do not match the loaded graph");
+        }
+        this.landmarks = landmarks;
+    }
+
+    public Landmarks prepareLandmarks(int count) {
+        Landmarks prepared = Landmarks.select(this.adjacency(), count);
+        this.landmarks = prepared;
+        return prepared;
+    }
+
+    public ContractionHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    public ContractionHierarchy prepareHierarchy() {
+        ContractionHierarchy prepared = ContractionHierarchy.build(this.adjacency());
+        this.hierarchy = prepared;
+        return prepared;
+    }
 
     public void readFrom(String filename) {
-        Path path = Path.of(filename);
-        List<String> lines;
-        try {
-            lines = Files.readAllLines(path);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        this.readFrom(filename, false);
+    }
+
+    public void readFrom(String filename, boolean parallel) {
+        this.load(this.timed(() -> GraphParser.parse(Path.of(filename), parallel)));
+    }
+
+    /**
+     * Loads the graph from {@code snapshot} when it was written from the current {@code filename}, otherwise
+     * parses {@code filename} and rewrites the snapshot.
+     */
+    public void readFrom(String filename, String snapshot) {
+        Path source = Path.of(filename);
+        Path binary = Path.of(snapshot);
+        this.load(this.timed(() -> {
+            CompactGraph cached = GraphSnapshot.readIfFresh(binary, source).orElse(null);
+            if (cached == null) {
+                cached = GraphParser.parse(source);
+                GraphSnapshot.write(cached, binary, source);
+            }
+            return cached;
+        }));
+    }
+
+    private CompactGraph timed(Supplier<CompactGraph> loader) {
+        QueryMetrics observer = this.metrics;
+        GraphLoadEvent event = GraphLoadEvent.start();
+        long start = System.nanoTime();
+        CompactGraph loaded = loader.get();
+        observer.graphLoaded(loaded.vertexCount(), loaded.edgeCount(), System.nanoTime() - start);
+        GraphLoadEvent.finish(event, loaded);
+        return loaded;
+    }
+
+    public void load(CompactGraph adjacency) {
+        if (this.strategy == SearchStrategy.DIAL) {
+            adjacency.minutes();
         }
-        this.vertices = lines
-                .stream()
-                .takeWhile(not(String::isBlank))
-                .map(Vertex::new)
+        this.adjacency = adjacency;
+        this.dynamic = null;
+        this.order = this.reordering ? VertexOrder.reverseCuthillMcKee(adjacency) : null;
+        this.names = new NameIndex(adjacency);
+        this.vertices = IntStream.range(0, adjacency.vertexCount())
+                .mapToObj(i -> new Vertex(i, adjacency.name(i)))
                 .toArray(Vertex[]::new);
-        lines
-                .stream()
-                .skip(vertices.length + 1)
-                .filter(not(String::isBlank))
-                .forEach(this::processEdgeLine);
+        this.contexts = new SearchContextPool(adjacency.vertexCount());
+        this.landmarks = null;
+        this.hierarchy = null;
+        if (this.cache != null) {
+            this.cache.invalidate();
+        }
     }
 
-    private void processEdgeLine(String line) {
-        String[] params = line.split(",");
-        if (params.length >= 3) {
-            try {
-                int source = parseInt(params[0].trim());
-                int target = parseInt(params[1].trim());
-                double weight = parseDouble(params[2].trim());
-                if (this.vertices.length > source && this.vertices.length > target) {
-                    this.vertices[source].addEdge(new Edge(this.vertices[target], weight));
-                }
-            } catch (NumberFormatException ignore) {}
+    /**
+     * Keeps the shortest-path tree from {@code source} up to date with later edge changes made through this graph.
+     */
+    public IncrementalShortestPathTree track(Vertex source) {
+        return this.dynamic().track(source.getIndex());
+    }
+
+    public void insertEdge(Vertex source, Vertex target, double cost) {
+        this.checkWeight(cost);
+        this.dynamic().insertEdge(source.getIndex(), target.getIndex(), cost);
+        this.edgesChanged();
+    }
+
+    public void updateEdge(Vertex source, Vertex target, double cost) {
+        this.checkWeight(cost);
+        this.dynamic().updateEdge(source.getIndex(), target.getIndex(), cost);
+        this.edgesChanged();
+    }
+
+    public void removeEdge(Vertex source, Vertex target) {
+        this.dynamic().removeEdge(source.getIndex(), target.getIndex());
+        this.edgesChanged();
+    }
+
+    private void checkWeight(double cost) {
+        if (this.strategy == SearchStrategy.DIAL && CompactGraph.toMinutes(cost) < 0) {
+            throw new IllegalArgumentException("Edge weight %s is not a whole number of minutes".formatted(cost));
+        }
+    }
+
+    private synchronized DynamicGraph dynamic() {
+        if (this.dynamic == null) {
+            this.dynamic = new DynamicGraph(this.adjacency);
+        }
+        return this.dynamic;
+    }
+
+    private void edgesChanged() {
+        this.landmarks = null;
+        this.hierarchy = null;
+        ShortestPathCache trees = this.cache;
+        if (trees != null) {
+            trees.invalidate();
         }
     }
 
+    public Edge[] getEdges(Vertex vertex) {
+        CompactGraph graph = this.adjacency();
+        return IntStream.range(graph.edgesStart(vertex.getIndex()), graph.edgesEnd(vertex.getIndex()))
+                .mapToObj(e -> new Edge(this.vertices[graph.target(e)], graph.weight(e)))
+                .toArray(Edge[]::new);
+    }
+
     public void toDotFormat(PrintStream output) {
         if (this.vertices == null) {
             return;
         }
-        output.printf("digraph {%n");
-        for (Vertex vertex :  this.vertices) {
-            for (Edge edge : vertex.getEdges()) {
-                output.printf("\"%s\" -> \"%s\" [w=%f]%n", vertex.getName(), edge.target().getName(), edge.cost());
-            }
+        try {
+            DotExporter.writeGraph(this.adjacency(), output);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        output.printf("}%n");
         output.flush();
     }
 
+    /**
+     * Writes the graph to {@code filename}, adding the {@code .dot} extension if missing, or gzip-compressed when
+     * the name ends with {@code .gz}.
+     */
     public void toDotFormat(String filename) {
-        String filenameWithExtension = filename.endsWith(".dot") ?
-                filename : filename.concat(".dot");
-        try (PrintStream ps = new PrintStream(filenameWithExtension)){
-            this.toDotFormat(ps);
-        } catch (FileNotFoundException e) {
+        try (OutputStream output = DotExporter.open(filename)) {
+            DotExporter.writeGraph(this.adjacency(), output);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public void printDistances(PrintStream output) {
-        for (Vertex vertex :  this.vertices) {
-            Vertex current = vertex;
-            while (current != null) {
-                output.printf("%s, ", current.getName());
-                current = current.getPrevious();
-            }
-            assert vertex != null;
-            output.printf("%.2f%n", vertex.getDistance());
+    public void toDotFormat(ShortestPathTree tree, String filename) {
+        try (OutputStream output = DotExporter.open(filename)) {
+            DotExporter.writeTree(tree, output);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the edges between the vertices reachable from {@code center} in at most {@code hops} edges.
+     */
+    public void toDotFormat(Vertex center, int hops, String filename) {
+        try (OutputStream output = DotExporter.open(filename)) {
+            DotExporter.writeNeighbourhood(this.adjacency(), center.getIndex(), hops, output);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void printDistances(ShortestPathTree tree, PrintStream output) {
+        ResultWriter writer = this.acquireWriter();
+        try {
+            writer.writeDistances(tree, output);
+        } finally {
+            this.writer.set(writer);
+        }
+    }
+
+    public void printRoute(Route route, PrintStream output) {
+        ResultWriter writer = this.acquireWriter();
+        try {
+            writer.writeRoute(this.adjacency(), route, output);
+        } finally {
+            this.writer.set(writer);
         }
     }
 
     public void printEdges(PrintStream output) {
-        for (Vertex vertex :  this.vertices) {
-            for (Edge edge: vertex.getEdges()) {
-                output.printf("%s, %s%n", vertex.getName(), edge.target().getName());
+        ResultWriter writer = this.acquireWriter();
+        try {
+            writer.writeEdges(this.adjacency(), output);
+        } finally {
+            this.writer.set(writer);
+        }
+    }
+
+    private ResultWriter acquireWriter() {
+        ResultWriter writer = this.writer.getAndSet(null);
+        return writer == null ? new ResultWriter() : writer;
+    }
+
+    public ShortestPathTree distancesFrom(Vertex start) {
+        ShortestPathCache trees = this.cache;
+        if (trees != null) {
+            return trees.get(start.getIndex(), this::search);
+        }
+        return this.search(start.getIndex());
+    }
+
+    private ShortestPathTree search(int source) {
+        QueryMetrics observer = this.metrics;
+        boolean timed = observer.isEnabled();
+        SearchEvent event = SearchEvent.start(source);
+        long start = timed ? System.nanoTime() : 0;
+        SearchContext context = this.contexts.acquire();
+        try {
+            CompactGraph graph = this.adjacency();
+            VertexOrder order = this.order(graph);
+            ShortestPathTree tree;
+            if (order == null) {
+                context.search(graph, source, this.strategy);
+                tree = context.toTree(graph, source);
+            } else {
+                context.search(order.graph, order.toInternal[source], this.strategy);
+                tree = order.toTree(context, source);
+            }
+            if (timed) {
+                observer.searchCompleted(source, context.settled, context.relaxedEdges, context.improvedEdges,
+                        context.queueOperations, System.nanoTime() - start);
             }
+            SearchEvent.finish(event, context);
+            return tree;
+        } finally {
+            this.contexts.release(context);
         }
     }
 
-    public void distancesFrom(Vertex start) {
-        for (Vertex vertex : this.vertices) {
-            vertex.setVisited(false);
-            vertex.setDistance(Double.POSITIVE_INFINITY);
-            vertex.setPrevious(null);
+    public ShortestPathTree distancesFrom(String start) {
+        return this.distancesFrom(this.getVertex(start));
+    }
+
+    /**
+     * Returns the vertices reachable from {@code start} within {@code maxCost}. The search stops expanding past the
+     * cutoff and only resets what the previous bounded search on the same context touched, so a local query costs
+     * what it reaches rather than the size of the graph.
+     */
+    public Isochrone isochrone(Vertex start, double maxCost) {
+        if (!(maxCost >= 0)) {
+            throw new IllegalArgumentException("Invalid maximum cost %s".formatted(maxCost));
         }
-        start.setDistance(0);
+        CompactGraph graph = this.adjacency();
+        VertexOrder order = this.order(graph);
+        SearchContext context = this.contexts.acquire();
+        try {
+            if (order == null) {
+                return context.searchWithin(graph, start.getIndex(), maxCost);
+            }
+            return order.toOriginal(context.searchWithin(order.graph, order.toInternal[start.getIndex()], maxCost));
+        } finally {
+            this.contexts.release(context);
+        }
+    }
 
-        Vertex current = start;
-        while (current != null && current.getDistance() != POSITIVE_INFINITY) {
-            Vertex neighbor = current;
-            stream(current.getEdges())
-                    .filter(e -> !e.target().isVisited())
-                    .forEach(e -> this.updateShortestDistance(neighbor, e));
-            current.setVisited(true);
-            current = stream(this.vertices)
-                    .filter(not(Vertex::isVisited))
-                    .min(comparing(Vertex::getDistance))
-                    .orElse(null);
+    public Isochrone isochrone(String start, double maxCost) {
+        return this.isochrone(this.getVertex(start), maxCost);
+    }
+
+    public DistanceMatrix distanceMatrix() {
+        return this.distanceMatrix(IntStream.range(0, this.vertices.length).toArray());
+    }
+
+    public DistanceMatrix distanceMatrix(int[] sources) {
+        return DistanceMatrix.compute(this.adjacency(), this.contexts, sources);
+    }
+
+    public void writeDistanceMatrix(Path path) {
+        DistanceMatrix.write(this.adjacency(), this.contexts, IntStream.range(0, this.vertices.length).toArray(), path);
+    }
+
+    /**
+     * Reads a timetable whose connections run between the stations of this graph.
+     */
+    public Timetable readTimetable(String filename) {
+        return Timetable.readFrom(Path.of(filename), this.adjacency());
+    }
+
+    public Route shortestPath(String source, String target) {
+        return this.shortestPath(source, target, QueryMode.UNIDIRECTIONAL);
+    }
+
+    /**
+     * Returns the distances from every origin to every destination, both given by name. With a prepared contraction
+     * hierarchy the table is computed with one small upward search per origin and per destination; otherwise with one
+     * search per origin that stops once every destination is settled.
+     */
+    public DistanceTable distanceTable(List<String> origins, List<String> destinations) {
+        return this.distanceTable(
+                origins.stream().mapToInt(name -> this.getVertex(name).getIndex()).toArray(),
+                destinations.stream().mapToInt(name -> this.getVertex(name).getIndex()).toArray());
+    }
+
+    public DistanceTable distanceTable(int[] sources, int[] targets) {
+        ContractionHierarchy contracted = this.hierarchy;
+        if (contracted != null) {
+            return contracted.manyToMany(this.contexts, sources.clone(), targets.clone());
         }
+        return DistanceTable.compute(this.adjacency(), this.contexts, sources.clone(), targets.clone());
+    }
+
+    public Route shortestPath(String source, String target, QueryMode mode) {
+        return this.shortestPath(this.getVertex(source), this.getVertex(target), mode);
     }
 
-    public void distancesFrom(String start) {
-        Vertex vertex = stream(this.vertices)
-                .filter(v -> start.equalsIgnoreCase(v.getName()))
-                .findAny()
-                .orElseThrow(() -> new IllegalArgumentException("No such vertex with name %s".formatted(start)));
-        this.distancesFrom(vertex);
+    public Route shortestPath(Vertex source, Vertex target, QueryMode mode) {
+        Landmarks prepared = this.landmarks;
+        ContractionHierarchy contracted = this.hierarchy;
+        if (mode == QueryMode.ALT && prepared == null) {
+            throw new IllegalStateException("Landmarks must be prepared before running ALT queries");
+        }
+        if (mode == QueryMode.CONTRACTION_HIERARCHY && contracted == null) {
+            throw new IllegalStateException("Contraction hierarchy must be prepared before running CH queries");
+        }
+        SearchContext forward = this.contexts.acquire();
+        try {
+            if (mode == QueryMode.UNIDIRECTIONAL) {
+                return Routing.unidirectional(this.adjacency(), forward, source.getIndex(), target.getIndex());
+            }
+            if (mode == QueryMode.ALT) {
+                return prepared.route(this.adjacency(), forward, source.getIndex(), target.getIndex());
+            }
+            SearchContext backward = this.contexts.acquire();
+            try {
+                if (mode == QueryMode.CONTRACTION_HIERARCHY) {
+                    return contracted.route(forward, backward, source.getIndex(), target.getIndex());
+                }
+                return Routing.bidirectional(this.adjacency(), forward, backward, source.getIndex(), target.getIndex());
+            } finally {
+                this.contexts.release(backward);
+            }
+        } finally {
+            this.contexts.release(forward);
+        }
     }
 
-    private void updateShortestDistance(Vertex neighbor, Edge edge) {
-        double newDistance = neighbor.getDistance() + edge.cost();
-        if (newDistance < edge.target().getDistance()) {
-            edge.target().setDistance(newDistance);
-            edge.target().setPrevious(neighbor);
+    public Vertex getVertex(String name) {
+        int index = this.names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("No such vertex with name %s".formatted(name));
         }
+        return this.vertices[index];
     }
 }
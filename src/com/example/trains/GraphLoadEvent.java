@@ -0,0 +1,39 @@
+package com.example.trains;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.trains.GraphLoad")
+@Label("Graph Load")
+@Category("Trains")
+final class GraphLoadEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(GraphLoadEvent.class);
+
+    @Label("Vertices")
+    int vertexCount;
+
+    @Label("Edges")
+    int edgeCount;
+
+    static GraphLoadEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        GraphLoadEvent event = new GraphLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    static void finish(GraphLoadEvent event, CompactGraph graph) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        event.vertexCount = graph.vertexCount();
+        event.edgeCount = graph.edgeCount();
+        event.commit();
+    }
+}
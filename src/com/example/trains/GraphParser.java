@@ -0,0 +1,314 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads the {@code input.txt} format from a memory-mapped file.
+ * Vertex names are decoded as UTF-8 up to the first blank line; edge lines are then parsed straight from the
+ * mapped bytes, optionally in parallel chunks. Edge lines with fewer than three comma-separated fields, with
+ * fields that do not parse or with vertex indices out of range are ignored, as before.
+ */
+public final class GraphParser {
+    private static final long WINDOW = 1L << 30;
+    private static final int CHUNK = 1 << 22;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Sink sink;
+    private final boolean parallel;
+    private boolean readingNames = true;
+
+    private GraphParser(Sink sink, boolean parallel) {
+        this.sink = sink;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Receives the vertices and then the edges of a file, in file order.
+     */
+    interface Sink {
+        void addVertex(String name);
+
+        int vertexCount();
+
+        void addEdges(int[] sources, int[] targets, double[] weights, int count);
+    }
+
+    public static CompactGraph parse(Path path) {
+        return parse(path, false);
+    }
+
+    public static CompactGraph parse(Path path, boolean parallel) {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        parse(path, parallel, new Sink() {
+            @Override
+            public void addVertex(String name) {
+                builder.addVertex(name);
+            }
+
+            @Override
+            public int vertexCount() {
+                return builder.vertexCount();
+            }
+
+            @Override
+            public void addEdges(int[] sources, int[] targets, double[] weights, int count) {
+                builder.addEdges(sources, targets, weights, count);
+            }
+        });
+        return builder.build();
+    }
+
+    static void parse(Path path, boolean parallel, Sink sink) {
+        GraphParser parser = new GraphParser(sink, parallel);
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(WINDOW, size - position);
+                ByteBuffer buffer = channel.map(READ_ONLY, position, length);
+                int end = position + length == size ? (int) length : lastLineEnd(buffer);
+                parser.parseWindow(buffer, end);
+                position += end;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int lastLineEnd(ByteBuffer buffer) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        throw new IllegalStateException("Line longer than %d bytes".formatted(buffer.limit()));
+    }
+
+    private void parseWindow(ByteBuffer buffer, int end) {
+        int start = 0;
+        while (this.readingNames && start < end) {
+            int lineEnd = lineEnd(buffer, start, end);
+            if (isBlank(buffer, start, lineEnd)) {
+                this.readingNames = false;
+            } else {
+                this.sink.addVertex(decode(buffer, start, lineEnd));
+            }
+            start = nextLine(buffer, lineEnd, end);
+        }
+        if (start >= end) {
+            return;
+        }
+        if (!this.parallel || end - start <= CHUNK) {
+            this.addEdges(parseEdges(buffer, start, end, this.sink.vertexCount()));
+            return;
+        }
+        int first = start;
+        int vertexCount = this.sink.vertexCount();
+        int chunks = (end - start + CHUNK - 1) / CHUNK;
+        List<EdgeChunk> parsed = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(i -> {
+                    int from = alignToLine(buffer, first + i * CHUNK, first, end);
+                    int to = i == chunks - 1 ? end : alignToLine(buffer, first + (i + 1) * CHUNK, first, end);
+                    return parseEdges(buffer, from, to, vertexCount);
+                })
+                .toList();
+        parsed.forEach(this::addEdges);
+    }
+
+    private void addEdges(EdgeChunk chunk) {
+        this.sink.addEdges(chunk.sources, chunk.targets, chunk.weights, chunk.size);
+    }
+
+    private static int alignToLine(ByteBuffer buffer, int position, int start, int end) {
+        if (position <= start) {
+            return start;
+        }
+        if (position >= end) {
+            return end;
+        }
+        int previous = buffer.get(position - 1);
+        if (previous == '\n' || previous == '\r' && buffer.get(position) != '\n') {
+            return position;
+        }
+        return nextLine(buffer, lineEnd(buffer, position, end), end);
+    }
+
+    private static EdgeChunk parseEdges(ByteBuffer buffer, int start, int end, int vertexCount) {
+        EdgeChunk chunk = new EdgeChunk(Math.max(16, (end - start) / 8));
+        while (start < end) {
+            int lineEnd = lineEnd(buffer, start, end);
+            parseEdge(buffer, start, lineEnd, vertexCount, chunk);
+            start = nextLine(buffer, lineEnd, end);
+        }
+        return chunk;
+    }
+
+    private static void parseEdge(ByteBuffer buffer, int start, int end, int vertexCount, EdgeChunk chunk) {
+        int firstComma = indexOfComma(buffer, start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOfComma(buffer, firstComma + 1, end);
+        if (secondComma < 0) {
+            return;
+        }
+        int thirdComma = indexOfComma(buffer, secondComma + 1, end);
+        int weightEnd = thirdComma < 0 ? end : thirdComma;
+        try {
+            int source = parseInt(buffer, start, firstComma);
+            int target = parseInt(buffer, firstComma + 1, secondComma);
+            double weight = parseDouble(buffer, secondComma + 1, weightEnd);
+            if (source >= 0 && target >= 0 && vertexCount > source && vertexCount > target) {
+                chunk.add(source, target, weight);
+            }
+        } catch (NumberFormatException ignore) {}
+    }
+
+    private static int parseInt(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        int position = start;
+        boolean negative = position < end && buffer.get(position) == '-';
+        if (position < end && (negative || buffer.get(position) == '+')) {
+            position++;
+        }
+        if (position == end || end - position > 9) {
+            return Integer.parseInt(decode(buffer, start, end));
+        }
+        int value = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(decode(buffer, start, end));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses plain decimals exactly: with at most 15 significant digits and 22 fractional digits, both the mantissa
+     * and the power of ten are exact doubles, so a single division is correctly rounded. Anything else is handed
+     * to {@link Double#parseDouble}.
+     */
+    private static double parseDouble(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        int position = start;
+        boolean negative = position < end && buffer.get(position) == '-';
+        if (position < end && (negative || buffer.get(position) == '+')) {
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (b >= '0' && b <= '9' && digits < 15) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                return Double.parseDouble(decode(buffer, start, end));
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(decode(buffer, start, end));
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static int indexOfComma(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int nextLine(ByteBuffer buffer, int lineEnd, int end) {
+        if (lineEnd < end && buffer.get(lineEnd) == '\r' && lineEnd + 1 < end && buffer.get(lineEnd + 1) == '\n') {
+            return lineEnd + 2;
+        }
+        return lineEnd + 1;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < 0) {
+                return decode(buffer, start, end).isBlank();
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class EdgeChunk {
+        private int[] sources;
+        private int[] targets;
+        private double[] weights;
+        private int size;
+
+        EdgeChunk(int capacity) {
+            this.sources = new int[capacity];
+            this.targets = new int[capacity];
+            this.weights = new double[capacity];
+        }
+
+        void add(int source, int target, double weight) {
+            if (this.size == this.sources.length) {
+                this.sources = Arrays.copyOf(this.sources, this.size * 2);
+                this.targets = Arrays.copyOf(this.targets, this.size * 2);
+                this.weights = Arrays.copyOf(this.weights, this.size * 2);
+            }
+            this.sources[this.size] = source;
+            this.targets[this.size] = target;
+            this.weights[this.size] = weight;
+            this.size++;
+        }
+    }
+}
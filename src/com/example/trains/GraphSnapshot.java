@@ -0,0 +1,271 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Binary image of a {@link CompactGraph}, loaded by mapping the file and bulk-copying its arrays.
+ * <p>
+ * Layout, little-endian: a 56 byte header (magic, version, vertex count, edge count, size of the name table,
+ * size and modification time of the text file it was built from, CRC32C of everything after the header, CRC32C of
+ * the header fields before it), then the name table (length-prefixed UTF-8 names), the forward offsets, targets and
+ * weights, and the same three arrays for the reverse graph. Every section is mapped on its own so each only has to
+ * stay under 2 GiB. Both checksums are verified before anything is decoded.
+ */
+public final class GraphSnapshot {
+    private static final int MAGIC = 0x534e5254;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 56;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private GraphSnapshot() {
+    }
+
+    public static void write(CompactGraph graph, Path path) {
+        write(graph, path, -1, -1);
+    }
+
+    public static void write(CompactGraph graph, Path path, Path source) {
+        try {
+            write(graph, path, Files.size(source), Files.getLastModifiedTime(source).toMillis());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void write(CompactGraph graph, Path path, long sourceSize, long sourceModified) {
+        CRC32C checksum = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long nameBytes = 0;
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                byte[] name = graph.name(v).getBytes(StandardCharsets.UTF_8);
+                ensureRemaining(channel, buffer, checksum, Integer.BYTES);
+                buffer.putInt(name.length);
+                for (int offset = 0; offset < name.length; ) {
+                    ensureRemaining(channel, buffer, checksum, 1);
+                    int length = Math.min(buffer.remaining(), name.length - offset);
+                    buffer.put(name, offset, length);
+                    offset += length;
+                }
+                nameBytes += Integer.BYTES + name.length;
+            }
+            flush(channel, buffer, checksum);
+            CompactGraph reverse = graph.reverse();
+            for (CompactGraph adjacency : new CompactGraph[] {graph, reverse}) {
+                writeInts(channel, buffer, checksum, adjacency.offsets);
+                writeInts(channel, buffer, checksum, adjacency.targets);
+                writeDoubles(channel, buffer, checksum, adjacency.weights);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(graph.vertexCount())
+                    .putInt(graph.edgeCount())
+                    .putLong(nameBytes)
+                    .putLong(sourceSize)
+                    .putLong(sourceModified)
+                    .putLong(checksum.getValue());
+            CRC32C headerChecksum = new CRC32C();
+            headerChecksum.update(header.array(), 0, header.position());
+            header.putLong(headerChecksum.getValue()).flip();
+            channel.write(header, 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads a snapshot, failing with {@link IllegalStateException} when it is not a snapshot of this version or
+     * when its checksum does not match.
+     */
+    public static CompactGraph read(Path path) {
+        Sections sections = map(path);
+        int vertexCount = sections.names().length;
+        int edgeCount = sections.targets()[0].remaining() / Integer.BYTES;
+        int[][] offsets = new int[2][vertexCount + 1];
+        int[][] targets = new int[2][edgeCount];
+        double[][] weights = new double[2][edgeCount];
+        for (int direction = 0; direction < 2; direction++) {
+            sections.offsets()[direction].asIntBuffer().get(offsets[direction]);
+            sections.targets()[direction].asIntBuffer().get(targets[direction]);
+            sections.weights()[direction].asDoubleBuffer().get(weights[direction]);
+        }
+        return CompactGraph.of(sections.names(), offsets[0], targets[0], weights[0],
+                offsets[1], targets[1], weights[1]);
+    }
+
+    /**
+     * Maps the arrays of a snapshot without copying them and decodes the names, with the same checks as
+     * {@link #read}. Index 0 of each array holds the forward graph and index 1 the reverse graph.
+     */
+    static Sections map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            ByteBuffer header = readHeader(channel);
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("%s is not a graph snapshot".formatted(path));
+            }
+            CRC32C headerChecksum = new CRC32C();
+            headerChecksum.update(header.array(), 0, HEADER_SIZE - Long.BYTES);
+            if (headerChecksum.getValue() != header.getLong(HEADER_SIZE - Long.BYTES)) {
+                throw new IllegalStateException("Snapshot %s is corrupt".formatted(path));
+            }
+            int vertexCount = header.getInt();
+            int edgeCount = header.getInt();
+            long nameBytes = header.getLong();
+            header.getLong();
+            header.getLong();
+            long expectedChecksum = header.getLong();
+            if (vertexCount < 0 || edgeCount < 0 || nameBytes < (long) vertexCount * Integer.BYTES) {
+                throw new IllegalStateException("Snapshot %s is corrupt".formatted(path));
+            }
+            long expectedSize = HEADER_SIZE + nameBytes
+                    + 2 * ((vertexCount + 1L) * Integer.BYTES + edgeCount * (long) (Integer.BYTES + Double.BYTES));
+            if (channel.size() != expectedSize) {
+                throw new IllegalStateException("Snapshot %s is truncated".formatted(path));
+            }
+            CRC32C checksum = new CRC32C();
+            long position = HEADER_SIZE;
+            ByteBuffer names = map(channel, position, nameBytes, checksum);
+            position += nameBytes;
+            ByteBuffer[] offsets = new ByteBuffer[2];
+            ByteBuffer[] targets = new ByteBuffer[2];
+            ByteBuffer[] weights = new ByteBuffer[2];
+            for (int direction = 0; direction < 2; direction++) {
+                offsets[direction] = map(channel, position, (vertexCount + 1L) * Integer.BYTES, checksum);
+                position += (vertexCount + 1L) * Integer.BYTES;
+                targets[direction] = map(channel, position, edgeCount * (long) Integer.BYTES, checksum);
+                position += edgeCount * (long) Integer.BYTES;
+                weights[direction] = map(channel, position, edgeCount * (long) Double.BYTES, checksum);
+                position += edgeCount * (long) Double.BYTES;
+            }
+            if (checksum.getValue() != expectedChecksum) {
+                throw new IllegalStateException("Snapshot %s is corrupt".formatted(path));
+            }
+            return new Sections(decodeNames(path, names, vertexCount), offsets, targets, weights);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the snapshot only if it exists, is intact and was written from the current version of {@code source}.
+     */
+    public static Optional<CompactGraph> readIfFresh(Path path, Path source) {
+        try {
+            return isFresh(path, source) ? Optional.of(read(path)) : Optional.empty();
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Tells from its header only whether the snapshot exists and was written from the current version of
+     * {@code source}; its checksum is verified when it is read or mapped.
+     */
+    static boolean isFresh(Path path, Path source) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            ByteBuffer header = readHeader(channel);
+            if (header.remaining() < HEADER_SIZE) {
+                return false;
+            }
+            long sourceSize = header.getLong(24);
+            long sourceModified = header.getLong(32);
+            return sourceSize == Files.size(source) && sourceModified == Files.getLastModifiedTime(source).toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String[] decodeNames(Path path, ByteBuffer names, int vertexCount) {
+        String[] decoded = new String[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            int length = names.remaining() < Integer.BYTES ? -1 : names.getInt();
+            if (length < 0 || length > names.remaining()) {
+                throw new IllegalStateException("Snapshot %s has a corrupt name table".formatted(path));
+            }
+            byte[] name = new byte[length];
+            names.get(name);
+            decoded[v] = new String(name, StandardCharsets.UTF_8);
+        }
+        if (names.hasRemaining()) {
+            throw new IllegalStateException("Snapshot %s has a corrupt name table".formatted(path));
+        }
+        return decoded;
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int read = 0;
+        while (header.hasRemaining() && read >= 0) {
+            read = channel.read(header);
+        }
+        return header.flip();
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size, CRC32C checksum)
+            throws IOException {
+        ByteBuffer buffer = channel.map(READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+        checksum.update(buffer.duplicate());
+        return buffer;
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, CRC32C checksum, int[] values)
+            throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            ensureRemaining(channel, buffer, checksum, Integer.BYTES);
+            int length = Math.min(buffer.remaining() / Integer.BYTES, values.length - offset);
+            buffer.asIntBuffer().put(values, offset, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+            offset += length;
+        }
+        flush(channel, buffer, checksum);
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer buffer, CRC32C checksum, double[] values)
+            throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            ensureRemaining(channel, buffer, checksum, Double.BYTES);
+            int length = Math.min(buffer.remaining() / Double.BYTES, values.length - offset);
+            buffer.asDoubleBuffer().put(values, offset, length);
+            buffer.position(buffer.position() + length * Double.BYTES);
+            offset += length;
+        }
+        flush(channel, buffer, checksum);
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, CRC32C checksum, int bytes)
+            throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer, checksum);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C checksum) throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    record Sections(String[] names, ByteBuffer[] offsets, ByteBuffer[] targets, ByteBuffer[] weights) {}
+}
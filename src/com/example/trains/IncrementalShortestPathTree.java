@@ -0,0 +1,54 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+/**
+ * Shortest-path tree tracked by a {@link DynamicGraph} and repaired in place after every edge change.
+ * Reads are not synchronized with concurrent changes; use {@link #snapshot()} for a consistent copy.
+ */
+public final class IncrementalShortestPathTree {
+    private final DynamicGraph graph;
+    private final int source;
+    final double[] distances;
+    final int[] previous;
+    int settled;
+
+    IncrementalShortestPathTree(DynamicGraph graph, int source, int vertexCount) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = new double[vertexCount];
+        this.previous = new int[vertexCount];
+        Arrays.fill(this.distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.previous, -1);
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public double getDistance(int vertex) {
+        return distances[vertex];
+    }
+
+    public int getPrevious(int vertex) {
+        return previous[vertex];
+    }
+
+    public boolean isReachable(int vertex) {
+        return distances[vertex] != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Number of vertices settled by the last repair, or by the initial search if there was no change since.
+     */
+    public int getSettled() {
+        return settled;
+    }
+
+    public ShortestPathTree snapshot() {
+        synchronized (this.graph) {
+            return new ShortestPathTree(this.graph.toCompactGraph(), this.source,
+                    this.distances.clone(), this.previous.clone());
+        }
+    }
+}
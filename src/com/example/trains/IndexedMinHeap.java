@@ -0,0 +1,124 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of vertex indices supporting decrease-key.
+ * Ties on the key are broken by the smallest index, the same order in which a linear scan over the vertices would
+ * pick them.
+ */
+final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final double[] keys;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.positions, -1);
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    boolean contains(int index) {
+        return this.positions[index] >= 0;
+    }
+
+    void insertOrDecrease(int index, double key) {
+        int position = this.positions[index];
+        if (position < 0) {
+            position = this.size++;
+            this.heap[position] = index;
+            this.positions[index] = position;
+        } else if (key >= this.keys[index]) {
+            return;
+        }
+        this.keys[index] = key;
+        this.siftUp(position);
+    }
+
+    void update(int index, double key) {
+        int position = this.positions[index];
+        if (position < 0) {
+            this.insertOrDecrease(index, key);
+            return;
+        }
+        double previous = this.keys[index];
+        this.keys[index] = key;
+        if (key < previous) {
+            this.siftUp(position);
+        } else {
+            this.siftDown(position);
+        }
+    }
+
+    double peekKey() {
+        return this.keys[this.heap[0]];
+    }
+
+    int poll() {
+        int top = this.heap[0];
+        this.positions[top] = -1;
+        int last = this.heap[--this.size];
+        if (this.size > 0) {
+            this.heap[0] = last;
+            this.positions[last] = 0;
+            this.siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.positions[this.heap[i]] = -1;
+        }
+        this.size = 0;
+    }
+
+    private void siftUp(int position) {
+        int index = this.heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentIndex = this.heap[parent];
+            if (!this.less(index, parentIndex)) {
+                break;
+            }
+            this.heap[position] = parentIndex;
+            this.positions[parentIndex] = position;
+            position = parent;
+        }
+        this.heap[position] = index;
+        this.positions[index] = position;
+    }
+
+    private void siftDown(int position) {
+        int index = this.heap[position];
+        int half = this.size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < this.size && this.less(this.heap[right], this.heap[child])) {
+                child = right;
+            }
+            int childIndex = this.heap[child];
+            if (!this.less(childIndex, index)) {
+                break;
+            }
+            this.heap[position] = childIndex;
+            this.positions[childIndex] = position;
+            position = child;
+        }
+        this.heap[position] = index;
+        this.positions[index] = position;
+    }
+
+    private boolean less(int a, int b) {
+        double keyA = this.keys[a];
+        double keyB = this.keys[b];
+        return keyA < keyB || (keyA == keyB && a < b);
+    }
+}
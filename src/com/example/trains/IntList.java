@@ -0,0 +1,43 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+final class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(8);
+    }
+
+    IntList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size++] = value;
+    }
+
+    int get(int index) {
+        return this.values[index];
+    }
+
+    int removeLast() {
+        return this.values[--this.size];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+}
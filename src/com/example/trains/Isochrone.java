@@ -0,0 +1,51 @@
+package com.example.trains;
+
+/**
+ * Result of a bounded query: the vertices reachable from the source within a maximum cost, in order of distance,
+ * each with its distance and predecessor. The source comes first, with no predecessor (-1).
+ */
+public final class Isochrone {
+    private final CompactGraph graph;
+    private final int source;
+    private final double maxCost;
+    private final int[] vertices;
+    private final double[] distances;
+    private final int[] previous;
+
+    Isochrone(CompactGraph graph, int source, double maxCost, int[] vertices, double[] distances, int[] previous) {
+        this.graph = graph;
+        this.source = source;
+        this.maxCost = maxCost;
+        this.vertices = vertices;
+        this.distances = distances;
+        this.previous = previous;
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public double getMaxCost() {
+        return maxCost;
+    }
+
+    public int size() {
+        return vertices.length;
+    }
+
+    public int getVertex(int index) {
+        return vertices[index];
+    }
+
+    public double getDistance(int index) {
+        return distances[index];
+    }
+
+    public int getPrevious(int index) {
+        return previous[index];
+    }
+}
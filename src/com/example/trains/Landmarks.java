@@ -0,0 +1,187 @@
+package com.example.trains;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+/**
+ * Distances from and to a small set of landmark vertices, used as A* lower bounds through the triangle inequality
+ * (the ALT technique).
+ */
+public final class Landmarks {
+    private static final int MAGIC = 0x414c5432;
+
+    private final int vertexCount;
+    private final int edgeCount;
+    private final long checksum;
+    private final int[] landmarks;
+    private final double[][] from;
+    private final double[][] to;
+
+    private Landmarks(int vertexCount, int edgeCount, long checksum, int[] landmarks, double[][] from,
+                      double[][] to) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.checksum = checksum;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Picks up to {@code count} landmarks by farthest-point selection: each new landmark is the vertex whose
+     * round trip to the closest landmark chosen so far is the longest, vertices not covered by any landmark first.
+     */
+    public static Landmarks select(CompactGraph graph, int count) {
+        int vertexCount = graph.vertexCount();
+        count = Math.min(count, vertexCount);
+        int[] landmarks = new int[count];
+        double[][] from = new double[count][];
+        double[][] to = new double[count][];
+        double[] score = new double[vertexCount];
+        Arrays.fill(score, POSITIVE_INFINITY);
+        SearchContext context = new SearchContext(vertexCount);
+        int selected = 0;
+        int next = 0;
+        while (selected < count && next >= 0) {
+            context.search(graph, next, SearchStrategy.BINARY_HEAP);
+            from[selected] = context.distances.clone();
+            context.search(graph.reverse(), next, SearchStrategy.BINARY_HEAP);
+            to[selected] = context.distances.clone();
+            landmarks[selected] = next;
+            next = -1;
+            double farthest = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                score[v] = Math.min(score[v], from[selected][v] + to[selected][v]);
+                if (score[v] > farthest) {
+                    farthest = score[v];
+                    next = v;
+                }
+            }
+            selected++;
+        }
+        return new Landmarks(vertexCount, graph.edgeCount(), graph.checksum(), Arrays.copyOf(landmarks, selected),
+                Arrays.copyOf(from, selected), Arrays.copyOf(to, selected));
+    }
+
+    public static Landmarks readFrom(Path path, CompactGraph graph) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IllegalStateException("%s is not a landmark file".formatted(path));
+            }
+            int vertexCount = input.readInt();
+            int edgeCount = input.readInt();
+            long checksum = input.readLong();
+            if (vertexCount != graph.vertexCount() || edgeCount != graph.edgeCount() || checksum != graph.checksum()) {
+                throw new IllegalStateException("Landmarks in %s were computed for another graph".formatted(path));
+            }
+            int count = input.readInt();
+            int[] landmarks = new int[count];
+            double[][] from = new double[count][vertexCount];
+            double[][] to = new double[count][vertexCount];
+            for (int i = 0; i < count; i++) {
+                landmarks[i] = input.readInt();
+                for (int v = 0; v < vertexCount; v++) {
+                    from[i][v] = input.readDouble();
+                }
+                for (int v = 0; v < vertexCount; v++) {
+                    to[i][v] = input.readDouble();
+                }
+            }
+            return new Landmarks(vertexCount, edgeCount, checksum, landmarks, from, to);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void writeTo(Path path) {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(this.vertexCount);
+            output.writeInt(this.edgeCount);
+            output.writeLong(this.checksum);
+            output.writeInt(this.landmarks.length);
+            for (int i = 0; i < this.landmarks.length; i++) {
+                output.writeInt(this.landmarks[i]);
+                for (double distance : this.from[i]) {
+                    output.writeDouble(distance);
+                }
+                for (double distance : this.to[i]) {
+                    output.writeDouble(distance);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Tells whether the landmarks were computed for {@code graph}: same counts and same checksum of its edges, so
+     * that edited weights are not mistaken for the original ones.
+     */
+    public boolean matches(CompactGraph graph) {
+        return graph.vertexCount() == this.vertexCount && graph.edgeCount() == this.edgeCount
+                && graph.checksum() == this.checksum;
+    }
+
+    /**
+     * Lower bound of the distance from {@code vertex} to {@code target}, infinite when the landmarks prove that the
+     * target cannot be reached.
+     */
+    double lowerBound(int vertex, int target) {
+        double bound = 0;
+        for (int i = 0; i < this.landmarks.length; i++) {
+            double forward = this.to[i][vertex] - this.to[i][target];
+            double backward = this.from[i][target] - this.from[i][vertex];
+            if (forward > bound) {
+                bound = forward;
+            }
+            if (backward > bound) {
+                bound = backward;
+            }
+        }
+        return bound;
+    }
+
+    Route route(CompactGraph graph, SearchContext context, int source, int target) {
+        context.reset();
+        context.reach(source, 0, -1);
+        context.queue.insertOrDecrease(source, this.lowerBound(source, target));
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        while (!context.queue.isEmpty()) {
+            int current = context.queue.poll();
+            context.visited[current] = true;
+            context.settled++;
+            if (current == target) {
+                break;
+            }
+            double distance = context.distances[current];
+            for (int e = graph.offsets[current], end = graph.offsets[current + 1]; e < end; e++) {
+                int next = targets[e];
+                double newDistance = distance + weights[e];
+                if (context.visited[next] || newDistance >= context.distances[next]) {
+                    continue;
+                }
+                double bound = this.lowerBound(next, target);
+                if (bound == POSITIVE_INFINITY) {
+                    continue;
+                }
+                context.reach(next, newDistance, current);
+                context.queue.insertOrDecrease(next, newDistance + bound);
+            }
+        }
+        return new Route(source, target, context.pathTo(target), context.distances[target], context.settled);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.trains;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds with eight buckets per power of two, so any reported percentile
+ * is at most 12.5% above the recorded value.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucket(Long.MAX_VALUE) + 1);
+
+    public void record(long nanos) {
+        this.counts.incrementAndGet(bucket(Math.max(0, nanos)));
+    }
+
+    public long count() {
+        long count = 0;
+        for (int b = 0; b < this.counts.length(); b++) {
+            count += this.counts.get(b);
+        }
+        return count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0 to 100) of the recorded durations, or 0 when nothing
+     * was recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count()));
+        long seen = 0;
+        for (int b = 0; b < this.counts.length(); b++) {
+            seen += this.counts.get(b);
+            if (seen >= rank) {
+                return upperBound(b);
+            }
+        }
+        return 0;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.trains;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link QueryMetrics} that accumulates the search counters and keeps latency histograms of searches and loads.
+ */
+public final class MetricsRecorder implements QueryMetrics {
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder settledVertices = new LongAdder();
+    private final LongAdder relaxedEdges = new LongAdder();
+    private final LongAdder improvedEdges = new LongAdder();
+    private final LongAdder queueOperations = new LongAdder();
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    @Override
+    public void searchCompleted(int source, int settledVertices, long relaxedEdges, long improvedEdges,
+                                long queueOperations, long nanos) {
+        this.searches.increment();
+        this.settledVertices.add(settledVertices);
+        this.relaxedEdges.add(relaxedEdges);
+        this.improvedEdges.add(improvedEdges);
+        this.queueOperations.add(queueOperations);
+        this.searchLatency.record(nanos);
+    }
+
+    @Override
+    public void graphLoaded(int vertexCount, int edgeCount, long nanos) {
+        this.loadLatency.record(nanos);
+    }
+
+    public long searches() {
+        return this.searches.sum();
+    }
+
+    public long settledVertices() {
+        return this.settledVertices.sum();
+    }
+
+    public long relaxedEdges() {
+        return this.relaxedEdges.sum();
+    }
+
+    public long improvedEdges() {
+        return this.improvedEdges.sum();
+    }
+
+    public long queueOperations() {
+        return this.queueOperations.sum();
+    }
+
+    public LatencyHistogram searchLatency() {
+        return this.searchLatency;
+    }
+
+    public LatencyHistogram loadLatency() {
+        return this.loadLatency;
+    }
+}
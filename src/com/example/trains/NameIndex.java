@@ -0,0 +1,55 @@
+package com.example.trains;
+
+/**
+ * Case-insensitive hash index of the vertex names of a graph, with the semantics of
+ * {@link String#equalsIgnoreCase}: names are hashed after folding every code point to
+ * {@code toLowerCase(toUpperCase(c))}, and when several vertices share a name the first one wins.
+ */
+final class NameIndex {
+    private final CompactGraph graph;
+    private final int[] hashes;
+    private final int[] slots;
+
+    NameIndex(CompactGraph graph) {
+        int vertexCount = graph.vertexCount();
+        this.graph = graph;
+        this.hashes = new int[vertexCount];
+        this.slots = new int[Integer.highestOneBit(Math.max(vertexCount, 1) * 2 + 1) * 2];
+        for (int v = 0; v < vertexCount; v++) {
+            String name = graph.name(v);
+            int hash = hash(name);
+            this.hashes[v] = hash;
+            int slot = this.find(name, hash);
+            if (this.slots[slot] == 0) {
+                this.slots[slot] = v + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the first vertex named {@code name}, ignoring case, or -1.
+     */
+    int indexOf(String name) {
+        return this.slots[this.find(name, hash(name))] - 1;
+    }
+
+    private int find(String name, int hash) {
+        int mask = this.slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int vertex = this.slots[slot] - 1;
+            if (vertex < 0 || this.hashes[vertex] == hash && name.equalsIgnoreCase(this.graph.name(vertex))) {
+                return slot;
+            }
+        }
+    }
+
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); ) {
+            int codePoint = name.codePointAt(i);
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        return (hash ^ hash >>> 16) * 0x9e3779b1;
+    }
+}
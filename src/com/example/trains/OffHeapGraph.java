@@ -0,0 +1,224 @@
+package com.example.trains;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Graph backend keeping the adjacency outside the Java heap, in direct buffers or in the mapped sections of a
+ * {@link GraphSnapshot} file; the heap only holds the station names and, per query, the primitive arrays of the
+ * search. Each array is limited to 2 GiB, that is about 268 million edges.
+ * Trees returned by this backend refer to a graph that holds the station names but no edges. The buffers are
+ * released by the garbage collector once the backend is closed and no longer referenced.
+ */
+public final class OffHeapGraph implements ShortestPaths, AutoCloseable {
+    private final String[] names;
+    private final CompactGraph stations;
+    private final NameIndex index;
+    private final SearchContextPool contexts;
+    private volatile Edges edges;
+
+    private OffHeapGraph(String[] names, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights) {
+        this.names = names;
+        int[] noEdges = new int[names.length + 1];
+        this.stations = CompactGraph.of(names, noEdges, new int[0], new double[0], noEdges, new int[0], new double[0]);
+        this.index = new NameIndex(this.stations);
+        this.contexts = new SearchContextPool(names.length);
+        this.edges = new Edges(offsets, targets, weights);
+    }
+
+    /**
+     * Copies the forward graph into direct buffers allocated outside the heap.
+     */
+    public static OffHeapGraph copyOf(CompactGraph graph) {
+        if (graph.edgeCount() > Integer.MAX_VALUE / Double.BYTES) {
+            throw new IllegalArgumentException("Too many edges: %d".formatted(graph.edgeCount()));
+        }
+        String[] names = new String[graph.vertexCount()];
+        for (int v = 0; v < names.length; v++) {
+            names[v] = graph.name(v);
+        }
+        IntBuffer offsets = allocate(graph.offsets.length * Integer.BYTES).asIntBuffer().put(graph.offsets);
+        IntBuffer targets = allocate(graph.targets.length * Integer.BYTES).asIntBuffer().put(graph.targets);
+        DoubleBuffer weights = allocate(graph.weights.length * Double.BYTES).asDoubleBuffer().put(graph.weights);
+        return new OffHeapGraph(names, offsets, targets, weights);
+    }
+
+    /**
+     * Maps the forward graph of a snapshot written by {@link GraphSnapshot#write}, without copying it.
+     */
+    public static OffHeapGraph map(Path snapshot) {
+        GraphSnapshot.Sections sections = GraphSnapshot.map(snapshot);
+        return new OffHeapGraph(sections.names(), sections.offsets()[0].asIntBuffer(),
+                sections.targets()[0].asIntBuffer(), sections.weights()[0].asDoubleBuffer());
+    }
+
+    /**
+     * Parses an {@code input.txt} file straight into direct buffers, in two passes: the first counts the edges of
+     * every vertex, the second writes them in place. Only per-vertex arrays and the parser's chunks are kept on the
+     * heap.
+     */
+    public static OffHeapGraph readFrom(Path path) {
+        Counter counter = new Counter();
+        GraphParser.parse(path, false, counter);
+        int vertexCount = counter.names.size();
+        int[] offsets = counter.degrees == null ? new int[vertexCount + 1] : counter.degrees;
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int edgeCount = offsets[vertexCount];
+        if (edgeCount > Integer.MAX_VALUE / Double.BYTES) {
+            throw new IllegalArgumentException("Too many edges: %d".formatted(edgeCount));
+        }
+        Filler filler = new Filler(offsets, allocate(edgeCount * Integer.BYTES).asIntBuffer(),
+                allocate(edgeCount * Double.BYTES).asDoubleBuffer());
+        GraphParser.parse(path, false, filler);
+        IntBuffer directOffsets = allocate(offsets.length * Integer.BYTES).asIntBuffer().put(offsets);
+        return new OffHeapGraph(counter.names.toArray(String[]::new), directOffsets, filler.targets, filler.weights);
+    }
+
+    /**
+     * Maps {@code snapshot} when it was written from the current {@code source} and is intact, otherwise parses
+     * {@code source}. Unlike {@link Graph#readFrom(String, String)}, a stale snapshot is not rewritten, since that
+     * would need the whole graph on the heap.
+     */
+    public static OffHeapGraph readFrom(Path source, Path snapshot) {
+        if (GraphSnapshot.isFresh(snapshot, source)) {
+            try {
+                return map(snapshot);
+            } catch (RuntimeException ignore) {}
+        }
+        return readFrom(source);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    public int vertexCount() {
+        return this.names.length;
+    }
+
+    public int edgeCount() {
+        return this.edges().targets.capacity();
+    }
+
+    public String name(int vertex) {
+        return this.names[vertex];
+    }
+
+    @Override
+    public ShortestPathTree distancesFrom(Vertex start) {
+        Edges edges = this.edges();
+        IntBuffer offsets = edges.offsets;
+        IntBuffer targets = edges.targets;
+        DoubleBuffer weights = edges.weights;
+        int source = start.getIndex();
+        SearchContext context = this.contexts.acquire();
+        try {
+            context.start(source);
+            double[] distances = context.distances;
+            while (!context.queue.isEmpty()) {
+                int current = context.queue.poll();
+                context.visited[current] = true;
+                context.settled++;
+                double distance = distances[current];
+                for (int e = offsets.get(current), end = offsets.get(current + 1); e < end; e++) {
+                    int target = targets.get(e);
+                    double newDistance = distance + weights.get(e);
+                    if (!context.visited[target] && newDistance < distances[target]) {
+                        context.reach(target, newDistance, current);
+                        context.queue.insertOrDecrease(target, newDistance);
+                    }
+                }
+            }
+            return context.toTree(this.stations, source);
+        } finally {
+            this.contexts.release(context);
+        }
+    }
+
+    @Override
+    public ShortestPathTree distancesFrom(String start) {
+        int v = this.index.indexOf(start);
+        if (v < 0) {
+            throw new IllegalArgumentException("No such vertex with name %s".formatted(start));
+        }
+        return this.distancesFrom(new Vertex(v, this.names[v]));
+    }
+
+    private Edges edges() {
+        Edges current = this.edges;
+        if (current == null) {
+            throw new IllegalStateException("Graph is closed");
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+        this.edges = null;
+    }
+
+    private static final class Counter implements GraphParser.Sink {
+        private final List<String> names = new ArrayList<>();
+        private int[] degrees;
+
+        @Override
+        public void addVertex(String name) {
+            this.names.add(name);
+        }
+
+        @Override
+        public int vertexCount() {
+            return this.names.size();
+        }
+
+        @Override
+        public void addEdges(int[] sources, int[] targets, double[] weights, int count) {
+            if (this.degrees == null) {
+                this.degrees = new int[this.names.size() + 1];
+            }
+            for (int i = 0; i < count; i++) {
+                this.degrees[sources[i] + 1]++;
+            }
+        }
+    }
+
+    private static final class Filler implements GraphParser.Sink {
+        private final int[] next;
+        private final IntBuffer targets;
+        private final DoubleBuffer weights;
+
+        Filler(int[] offsets, IntBuffer targets, DoubleBuffer weights) {
+            this.next = Arrays.copyOf(offsets, offsets.length - 1);
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        @Override
+        public void addVertex(String name) {
+        }
+
+        @Override
+        public int vertexCount() {
+            return this.next.length;
+        }
+
+        @Override
+        public void addEdges(int[] sources, int[] targets, double[] weights, int count) {
+            for (int i = 0; i < count; i++) {
+                int position = this.next[sources[i]]++;
+                this.targets.put(position, targets[i]);
+                this.weights.put(position, weights[i]);
+            }
+        }
+    }
+
+    private record Edges(IntBuffer offsets, IntBuffer targets, DoubleBuffer weights) {}
+}
@@ -0,0 +1,145 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Reusable byte buffer drained to an output stream or a channel, with fixed-point formatting of doubles that does
+ * not allocate.
+ */
+final class OutputBuffer {
+    static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+    private static final double MAX_FAST = 1e15;
+    private static final int MAX_NUMBER_LENGTH = 330;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6};
+
+    private final byte[] buffer;
+    private final ByteBuffer channelBuffer;
+    private int position;
+    private OutputStream stream;
+    private WritableByteChannel channel;
+
+    OutputBuffer(int size) {
+        this.buffer = new byte[Math.max(size, 2 * MAX_NUMBER_LENGTH)];
+        this.channelBuffer = ByteBuffer.wrap(this.buffer);
+    }
+
+    void open(OutputStream output) {
+        this.stream = output;
+    }
+
+    void open(WritableByteChannel output) {
+        this.channel = output;
+    }
+
+    /**
+     * Forgets the output and whatever was not flushed yet.
+     */
+    void close() {
+        this.position = 0;
+        this.stream = null;
+        this.channel = null;
+    }
+
+    void put(byte[] bytes) throws IOException {
+        this.put(bytes, 0, bytes.length);
+    }
+
+    void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (this.position == this.buffer.length) {
+                this.flush();
+            }
+            int chunk = Math.min(length, this.buffer.length - this.position);
+            System.arraycopy(bytes, offset, this.buffer, this.position, chunk);
+            this.position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    void putFixed(double value, int decimals) throws IOException {
+        if (this.position + MAX_NUMBER_LENGTH > this.buffer.length) {
+            this.flush();
+        }
+        this.position = formatFixed(value, decimals, this.buffer, this.position);
+    }
+
+    void flush() throws IOException {
+        if (this.stream != null) {
+            this.stream.write(this.buffer, 0, this.position);
+        } else {
+            this.channelBuffer.clear().limit(this.position);
+            while (this.channelBuffer.hasRemaining()) {
+                this.channel.write(this.channelBuffer);
+            }
+        }
+        this.position = 0;
+    }
+
+    /**
+     * Writes {@code value} as {@code String.format("%.<decimals>f", value)} does in an English locale, for up to six
+     * decimals, returning the position after the last byte written; {@code target} must have room for 330 bytes.
+     * Java rounds the shortest decimal representation of the double half up, so values close to a tie are formatted
+     * from {@link Double#toString(double)}; very large values are handed to {@link String#format}.
+     */
+    static int formatFixed(double value, int decimals, byte[] target, int offset) {
+        if (Double.isNaN(value)) {
+            System.arraycopy(NAN, 0, target, offset, NAN.length);
+            return offset + NAN.length;
+        }
+        if (value < 0 || value == 0 && 1 / value < 0) {
+            target[offset++] = '-';
+            value = -value;
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            System.arraycopy(INFINITY, 0, target, offset, INFINITY.length);
+            return offset + INFINITY.length;
+        }
+        double scale = POWERS_OF_TEN[decimals];
+        double scaled = value * scale;
+        if (scaled >= MAX_FAST) {
+            byte[] formatted = String.format(Locale.ROOT, "%." + decimals + "f", value)
+                    .getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(formatted, 0, target, offset, formatted.length);
+            return offset + formatted.length;
+        }
+        long units = (long) scaled;
+        double fraction = scaled - units;
+        if (Math.abs(fraction - 0.5) <= 4 * Math.ulp(scaled)) {
+            units = new BigDecimal(Double.toString(value)).setScale(decimals, RoundingMode.HALF_UP)
+                    .unscaledValue().longValue();
+        } else if (fraction > 0.5) {
+            units++;
+        }
+        long divisor = (long) scale;
+        long integer = units / divisor;
+        int digits = 1;
+        for (long rest = integer / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + integer % 10);
+            integer /= 10;
+        }
+        offset += digits;
+        if (decimals == 0) {
+            return offset;
+        }
+        target[offset++] = '.';
+        long fractional = units % divisor;
+        for (int i = offset + decimals - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + fractional % 10);
+            fractional /= 10;
+        }
+        return offset + decimals;
+    }
+}
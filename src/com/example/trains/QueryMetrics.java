@@ -0,0 +1,26 @@
+package com.example.trains;
+
+/**
+ * Receives the measurements of single-source searches and graph loads.
+ * Every callback takes primitives only, so that reporting does not allocate; {@link #NONE} is the disabled default
+ * and is never timed.
+ */
+public interface QueryMetrics {
+    QueryMetrics NONE = new QueryMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    default void searchCompleted(int source, int settledVertices, long relaxedEdges, long improvedEdges,
+                                 long queueOperations, long nanos) {
+    }
+
+    default void graphLoaded(int vertexCount, int edgeCount, long nanos) {
+    }
+}
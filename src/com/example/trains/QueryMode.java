@@ -0,0 +1,8 @@
+package com.example.trains;
+
+public enum QueryMode {
+    UNIDIRECTIONAL,
+    BIDIRECTIONAL,
+    ALT,
+    CONTRACTION_HIERARCHY
+}
@@ -0,0 +1,193 @@
+package com.example.trains;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers queries against a graph loaded once, one query per line: {@code Lyon} prints the distances from Lyon and
+ * {@code Lyon, Paris} prints the route from Lyon to Paris, in the same format as the command line. Every answer
+ * ends with an empty line; a query that fails is answered inline with {@code Error: } and its message.
+ * Queries are answered concurrently while the input keeps coming, but answers are written in query order as soon as
+ * every earlier one is written; the output is flushed whenever no more input is immediately available.
+ * Route queries need a heap {@link Graph}; any other backend answers them with an error.
+ */
+public final class QueryServer implements AutoCloseable {
+    private final ShortestPaths graph;
+    private final ExecutorService workers;
+    private final int window;
+    private final ThreadLocal<ResultWriter> writers = ThreadLocal.withInitial(ResultWriter::new);
+    private volatile ServerSocket server;
+    private volatile boolean closed;
+
+    public QueryServer(ShortestPaths graph, int parallelism) {
+        this.graph = graph;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+        this.window = 4 * parallelism;
+    }
+
+    public void serve(Reader input, Writer output) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        Answers answers = new Answers(new BufferedWriter(output, 1 << 16));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String query = line;
+            CompletableFuture<String> answer = CompletableFuture.supplyAsync(() -> this.answer(query), this.workers);
+            answers.add(answer);
+            answer.thenRun(answers::writeCompleted);
+            answers.awaitFewerThan(this.window);
+            answers.setIdle(!reader.ready());
+        }
+        answers.awaitFewerThan(1);
+        answers.setIdle(true);
+    }
+
+    /**
+     * Accepts connections on the loopback interface until the server is closed or the socket fails, serving each
+     * one on its own virtual thread.
+     */
+    public void listen(int port) throws IOException {
+        try (ServerSocket socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            this.server = socket;
+            if (this.closed) {
+                return;
+            }
+            while (true) {
+                Socket client;
+                try {
+                    client = socket.accept();
+                } catch (SocketException e) {
+                    if (this.closed) {
+                        return;
+                    }
+                    throw e;
+                }
+                Thread.ofVirtual().start(() -> {
+                    try (client) {
+                        this.serve(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8),
+                                new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8));
+                    } catch (IOException ignore) {}
+                });
+            }
+        }
+    }
+
+    String answer(String query) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        String[] cities = query.split(",");
+        try {
+            if (cities.length == 1) {
+                String start = cities[0].strip();
+                output.printf("Calculating distances from %s.\n", start);
+                this.writers.get().writeDistances(this.graph.distancesFrom(start), output);
+            } else if (cities.length == 2) {
+                String source = cities[0].strip();
+                String target = cities[1].strip();
+                output.printf("Calculating route from %s to %s.\n", source, target);
+                if (!(this.graph instanceof Graph graph)) {
+                    throw new IllegalStateException("Route queries need the heap backend");
+                }
+                graph.printRoute(graph.shortestPath(source, target, QueryMode.BIDIRECTIONAL), output);
+            } else {
+                throw new IllegalArgumentException("Expected one or two cities, got %s".formatted(query));
+            }
+        } catch (RuntimeException e) {
+            output.printf("Error: %s\n", e.getMessage());
+        }
+        output.print('\n');
+        output.flush();
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        ServerSocket socket = this.server;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignore) {}
+        }
+        this.workers.shutdown();
+    }
+
+    /**
+     * Answers of one connection in query order. Whichever thread completes the answer at the head writes every
+     * completed one, and flushes them when the reader is waiting for input.
+     */
+    private static final class Answers {
+        private final Queue<CompletableFuture<String>> pending = new ArrayDeque<>();
+        private final BufferedWriter writer;
+        private boolean idle;
+        private IOException failure;
+
+        Answers(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        synchronized void add(CompletableFuture<String> answer) {
+            this.pending.add(answer);
+        }
+
+        synchronized void setIdle(boolean idle) throws IOException {
+            this.idle = idle;
+            this.writeCompleted();
+            this.rethrow();
+        }
+
+        void awaitFewerThan(int count) throws IOException {
+            while (true) {
+                CompletableFuture<String> head;
+                synchronized (this) {
+                    if (this.pending.size() < count) {
+                        return;
+                    }
+                    head = this.pending.peek();
+                }
+                head.join();
+                this.writeCompleted();
+                this.rethrow();
+            }
+        }
+
+        private synchronized void rethrow() throws IOException {
+            if (this.failure != null) {
+                throw this.failure;
+            }
+        }
+
+        synchronized void writeCompleted() {
+            try {
+                while (!this.pending.isEmpty() && this.pending.peek().isDone()) {
+                    this.writer.write(this.pending.remove().join());
+                }
+                if (this.idle) {
+                    this.writer.flush();
+                }
+            } catch (IOException e) {
+                this.pending.clear();
+                this.failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes query results through a reusable byte buffer, in the same text format as {@code printf}: one line per
+ * vertex with the vertex, its predecessors up to the source and the distance with two decimals, and the same single
+ * line for a route.
+ * Distances are written by walking the shortest-path tree once from the source, so lines come in depth-first order
+ * and each predecessor chain is copied from the line of the parent instead of being followed again. Unreachable
+ * vertices come last. Once its buffers have grown to the graph, a writer does not allocate; it is not thread-safe.
+ */
+public final class ResultWriter {
+    private static final byte[] SEPARATOR = {',', ' '};
+
+    private final OutputBuffer output;
+
+    private CompactGraph encoded;
+    private byte[][] names;
+    private int[] firstChild = new int[0];
+    private int[] nextSibling = new int[0];
+    private int[] cursor = new int[0];
+    private int[] stack = new int[0];
+    private byte[] path = new byte[256];
+    private int pathStart;
+
+    public ResultWriter() {
+        this(1 << 16);
+    }
+
+    public ResultWriter(int bufferSize) {
+        this.output = new OutputBuffer(bufferSize);
+    }
+
+    public void writeDistances(ShortestPathTree tree, OutputStream output) {
+        this.output.open(output);
+        this.writeDistances(tree);
+    }
+
+    public void writeDistances(ShortestPathTree tree, WritableByteChannel output) {
+        this.output.open(output);
+        this.writeDistances(tree);
+    }
+
+    public void writeRoute(CompactGraph graph, Route route, OutputStream output) {
+        this.output.open(output);
+        this.writeRoute(graph, route);
+    }
+
+    public void writeRoute(CompactGraph graph, Route route, WritableByteChannel output) {
+        this.output.open(output);
+        this.writeRoute(graph, route);
+    }
+
+    public void writeEdges(CompactGraph graph, OutputStream output) {
+        this.output.open(output);
+        this.writeEdges(graph);
+    }
+
+    public void writeEdges(CompactGraph graph, WritableByteChannel output) {
+        this.output.open(output);
+        this.writeEdges(graph);
+    }
+
+    private void writeDistances(ShortestPathTree tree) {
+        try {
+            CompactGraph graph = tree.getGraph();
+            int vertexCount = graph.vertexCount();
+            this.prepare(graph);
+            Arrays.fill(this.firstChild, 0, vertexCount, -1);
+            for (int v = vertexCount - 1; v >= 0; v--) {
+                int parent = tree.getPrevious(v);
+                if (parent >= 0) {
+                    this.nextSibling[v] = this.firstChild[parent];
+                    this.firstChild[parent] = v;
+                }
+            }
+            int root = tree.getSource();
+            this.pathStart = this.path.length;
+            this.writeLine(root, tree.getDistance(root));
+            this.descend(root);
+            int top = 0;
+            this.stack[0] = root;
+            while (top >= 0) {
+                int vertex = this.stack[top];
+                int child = this.cursor[vertex];
+                if (child < 0) {
+                    this.pathStart += this.names[vertex].length + SEPARATOR.length;
+                    top--;
+                    continue;
+                }
+                this.cursor[vertex] = this.nextSibling[child];
+                this.writeLine(child, tree.getDistance(child));
+                this.descend(child);
+                this.stack[++top] = child;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                if (v != root && tree.getPrevious(v) < 0) {
+                    this.writeLine(v, tree.getDistance(v));
+                }
+            }
+            this.output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.output.close();
+        }
+    }
+
+    private void writeRoute(CompactGraph graph, Route route) {
+        try {
+            this.prepare(graph);
+            int[] path = route.path();
+            this.output.put(this.names[route.target()]);
+            this.output.put(SEPARATOR);
+            for (int i = path.length - 2; i >= 0; i--) {
+                this.output.put(this.names[path[i]]);
+                this.output.put(SEPARATOR);
+            }
+            this.output.putFixed(route.cost(), 2);
+            this.output.put(OutputBuffer.LINE_SEPARATOR);
+            this.output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.output.close();
+        }
+    }
+
+    private void writeEdges(CompactGraph graph) {
+        try {
+            this.prepare(graph);
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                for (int e = graph.edgesStart(v), end = graph.edgesEnd(v); e < end; e++) {
+                    this.output.put(this.names[v]);
+                    this.output.put(SEPARATOR);
+                    this.output.put(this.names[graph.target(e)]);
+                    this.output.put(OutputBuffer.LINE_SEPARATOR);
+                }
+            }
+            this.output.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.output.close();
+        }
+    }
+
+    private void prepare(CompactGraph graph) {
+        int vertexCount = graph.vertexCount();
+        if (this.encoded != graph) {
+            this.names = new byte[vertexCount][];
+            for (int v = 0; v < vertexCount; v++) {
+                this.names[v] = graph.name(v).getBytes(StandardCharsets.UTF_8);
+            }
+            this.encoded = graph;
+        }
+        if (this.firstChild.length < vertexCount) {
+            this.firstChild = new int[vertexCount];
+            this.nextSibling = new int[vertexCount];
+            this.cursor = new int[vertexCount];
+            this.stack = new int[vertexCount];
+        }
+    }
+
+    private void descend(int vertex) {
+        this.cursor[vertex] = this.firstChild[vertex];
+        byte[] name = this.names[vertex];
+        int length = name.length + SEPARATOR.length;
+        if (this.pathStart < length) {
+            int used = this.path.length - this.pathStart;
+            byte[] grown = new byte[Math.max(this.path.length * 2, used + length)];
+            System.arraycopy(this.path, this.pathStart, grown, grown.length - used, used);
+            this.pathStart = grown.length - used;
+            this.path = grown;
+        }
+        this.pathStart -= length;
+        System.arraycopy(name, 0, this.path, this.pathStart, name.length);
+        System.arraycopy(SEPARATOR, 0, this.path, this.pathStart + name.length, SEPARATOR.length);
+    }
+
+    private void writeLine(int vertex, double distance) throws IOException {
+        this.output.put(this.names[vertex]);
+        this.output.put(SEPARATOR);
+        this.output.put(this.path, this.pathStart, this.path.length - this.pathStart);
+        this.output.putFixed(distance, 2);
+        this.output.put(OutputBuffer.LINE_SEPARATOR);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.trains;
+
+/**
+ * Result of a point-to-point query.
+ * {@code path} lists the vertices from source to target and is empty when the target cannot be reached;
+ * {@code settled} counts the vertices the search had to settle.
+ */
+public record Route(
+        int source,
+        int target,
+        int[] path,
+        double cost,
+        int settled
+) {
+    public boolean isReachable() {
+        return path.length > 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+final class Routing {
+
+    private Routing() {
+    }
+
+    static Route unidirectional(CompactGraph graph, SearchContext context, int source, int target) {
+        context.searchTo(graph, source, target);
+        return new Route(source, target, context.pathTo(target), context.distances[target], context.settled);
+    }
+
+    /**
+     * Alternates a forward search from the source and a backward search from the target over the reverse graph,
+     * always expanding the side with the smallest queue key. Stops once the sum of both smallest keys cannot
+     * improve on the best meeting point found so far.
+     */
+    static Route bidirectional(CompactGraph graph, SearchContext forward, SearchContext backward, int source, int target) {
+        CompactGraph reverse = graph.reverse();
+        forward.start(source);
+        backward.start(target);
+        double best = source == target ? 0 : POSITIVE_INFINITY;
+        int meeting = source == target ? source : -1;
+        while (!forward.queue.isEmpty() && !backward.queue.isEmpty()
+                && forward.queue.peekKey() + backward.queue.peekKey() < best) {
+            boolean forwardStep = forward.queue.peekKey() <= backward.queue.peekKey();
+            SearchContext self = forwardStep ? forward : backward;
+            SearchContext other = forwardStep ? backward : forward;
+            CompactGraph adjacency = forwardStep ? graph : reverse;
+            int current = self.settleNext(adjacency);
+            for (int e = adjacency.offsets[current], end = adjacency.offsets[current + 1]; e < end; e++) {
+                int next = adjacency.targets[e];
+                double candidate = self.distances[next] + other.distances[next];
+                if (candidate < best) {
+                    best = candidate;
+                    meeting = next;
+                }
+            }
+        }
+        int settled = forward.settled + backward.settled;
+        if (meeting < 0) {
+            return new Route(source, target, new int[0], POSITIVE_INFINITY, settled);
+        }
+        int[] head = forward.pathTo(meeting);
+        int length = head.length;
+        for (int v = backward.previous[meeting]; v >= 0; v = backward.previous[v]) {
+            length++;
+        }
+        int[] path = Arrays.copyOf(head, length);
+        int position = head.length;
+        for (int v = backward.previous[meeting]; v >= 0; v = backward.previous[v]) {
+            path[position++] = v;
+        }
+        return new Route(source, target, path, forward.distances[meeting] + backward.distances[meeting], settled);
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+/**
+ * Mutable state of a single shortest-path query, indexed by vertex.
+ * A context is owned by one thread at a time and reused across queries through a {@link SearchContextPool}.
+ */
+final class SearchContext {
+    final double[] distances;
+    final int[] previous;
+    final boolean[] visited;
+    final IndexedMinHeap queue;
+    int settled;
+    long relaxedEdges;
+    long improvedEdges;
+    long queueOperations;
+    private final IntList touched = new IntList();
+    private final IntList settledOrder = new IntList();
+    private DeltaStepping deltaStepping;
+    private DialQueue buckets;
+    private int[] minutes;
+
+    SearchContext(int vertexCount) {
+        this.distances = new double[vertexCount];
+        this.previous = new int[vertexCount];
+        this.visited = new boolean[vertexCount];
+        this.queue = new IndexedMinHeap(vertexCount);
+        Arrays.fill(this.distances, POSITIVE_INFINITY);
+        Arrays.fill(this.previous, -1);
+    }
+
+    /**
+     * Clears the vertices reached since the last reset, or the whole arrays once a large part of the graph was
+     * reached, so a local search costs what it touches whatever ran on this context before.
+     */
+    void reset() {
+        if (this.touched.size() > this.distances.length / 8) {
+            Arrays.fill(this.distances, POSITIVE_INFINITY);
+            Arrays.fill(this.previous, -1);
+            Arrays.fill(this.visited, false);
+        } else {
+            for (int i = 0; i < this.touched.size(); i++) {
+                int vertex = this.touched.get(i);
+                this.distances[vertex] = POSITIVE_INFINITY;
+                this.previous[vertex] = -1;
+                this.visited[vertex] = false;
+            }
+        }
+        this.queue.clear();
+        this.touched.clear();
+        this.settledOrder.clear();
+        this.settled = 0;
+        this.relaxedEdges = 0;
+        this.improvedEdges = 0;
+        this.queueOperations = 0;
+    }
+
+    /**
+     * Sets the distance and predecessor of {@code vertex}; every write to {@link #distances} goes through here or
+     * is recorded otherwise, so that {@link #reset} finds the vertex.
+     */
+    void reach(int vertex, double distance, int previous) {
+        if (this.distances[vertex] == POSITIVE_INFINITY) {
+            this.touched.add(vertex);
+        }
+        this.distances[vertex] = distance;
+        this.previous[vertex] = previous;
+    }
+
+    void start(int source) {
+        this.reset();
+        this.reach(source, 0, -1);
+        this.queue.insertOrDecrease(source, 0);
+        this.queueOperations++;
+    }
+
+    int settleNext(CompactGraph graph) {
+        int current = this.queue.poll();
+        this.queueOperations++;
+        this.relaxEdges(graph, current, true);
+        this.visited[current] = true;
+        this.settled++;
+        return current;
+    }
+
+    void searchTo(CompactGraph graph, int source, int target) {
+        this.start(source);
+        while (!this.queue.isEmpty()) {
+            if (this.settleNext(graph) == target) {
+                return;
+            }
+        }
+    }
+
+    int[] pathTo(int target) {
+        if (this.distances[target] == POSITIVE_INFINITY) {
+            return new int[0];
+        }
+        int length = 0;
+        for (int v = target; v >= 0; v = this.previous[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; v >= 0; v = this.previous[v]) {
+            path[--length] = v;
+        }
+        return path;
+    }
+
+    void search(CompactGraph graph, int source, SearchStrategy strategy) {
+        this.reset();
+        this.reach(source, 0, -1);
+        switch (strategy) {
+            case LINEAR_SCAN -> this.linearScan(graph, source);
+            case BINARY_HEAP -> this.binaryHeap(graph, source);
+            case DELTA_STEPPING -> this.deltaStepping(graph, source);
+            case DIAL -> this.dial(graph, source);
+        }
+    }
+
+    int settleSparse() {
+        int current = this.queue.poll();
+        this.queueOperations++;
+        this.visited[current] = true;
+        this.settledOrder.add(current);
+        this.settled++;
+        return current;
+    }
+
+    /**
+     * Returns the vertices settled by {@link #settleSparse} since {@link #start}, in order of distance.
+     */
+    int[] settledVertices() {
+        return this.settledOrder.toArray();
+    }
+
+    /**
+     * Settles every vertex at distance at most {@code maxCost} from {@code source} and returns them in order of
+     * distance.
+     */
+    Isochrone searchWithin(CompactGraph graph, int source, double maxCost) {
+        this.start(source);
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        while (!this.queue.isEmpty()) {
+            int current = this.settleSparse();
+            double distance = this.distances[current];
+            int start = graph.offsets[current];
+            int end = graph.offsets[current + 1];
+            this.relaxedEdges += end - start;
+            for (int e = start; e < end; e++) {
+                int target = targets[e];
+                double newDistance = distance + weights[e];
+                if (newDistance <= maxCost && !this.visited[target] && newDistance < this.distances[target]) {
+                    this.reach(target, newDistance, current);
+                    this.improvedEdges++;
+                    this.queue.insertOrDecrease(target, newDistance);
+                    this.queueOperations++;
+                }
+            }
+        }
+        int[] reached = this.settledVertices();
+        double[] reachedDistances = new double[reached.length];
+        int[] reachedPrevious = new int[reached.length];
+        for (int i = 0; i < reached.length; i++) {
+            reachedDistances[i] = this.distances[reached[i]];
+            reachedPrevious[i] = this.previous[reached[i]];
+        }
+        return new Isochrone(graph, source, maxCost, reached, reachedDistances, reachedPrevious);
+    }
+
+    ShortestPathTree toTree(CompactGraph graph, int source) {
+        return new ShortestPathTree(graph, source, this.distances.clone(), this.previous.clone());
+    }
+
+    private void linearScan(CompactGraph graph, int source) {
+        int current = source;
+        while (current >= 0) {
+            this.relaxEdges(graph, current, false);
+            this.visited[current] = true;
+            this.settled++;
+            current = -1;
+            double best = POSITIVE_INFINITY;
+            for (int v = 0; v < this.distances.length; v++) {
+                if (!this.visited[v] && this.distances[v] < best) {
+                    best = this.distances[v];
+                    current = v;
+                }
+            }
+        }
+    }
+
+    private void binaryHeap(CompactGraph graph, int source) {
+        this.queue.insertOrDecrease(source, 0);
+        this.queueOperations++;
+        while (!this.queue.isEmpty()) {
+            this.settleNext(graph);
+        }
+    }
+
+    private void deltaStepping(CompactGraph graph, int source) {
+        if (this.deltaStepping == null) {
+            this.deltaStepping = new DeltaStepping(this.distances.length);
+        }
+        this.deltaStepping.search(graph, source, this.distances, this.previous);
+        this.relaxedEdges = this.deltaStepping.relaxedEdges;
+        this.improvedEdges = this.deltaStepping.improvedEdges;
+        this.queueOperations = this.deltaStepping.queueOperations;
+        this.touched.clear();
+        for (int v = 0; v < this.distances.length; v++) {
+            if (this.distances[v] != POSITIVE_INFINITY) {
+                this.touched.add(v);
+                this.settled++;
+            }
+        }
+    }
+
+    /**
+     * Dijkstra's algorithm on the edge weights in whole minutes with a bucket queue; distances are converted back to
+     * hours as they are settled. Only the minutes of the vertices reached are cleared afterwards, like the other
+     * arrays.
+     */
+    private void dial(CompactGraph graph, int source) {
+        int[] weights = graph.minutes();
+        if (this.buckets == null) {
+            this.buckets = new DialQueue(this.distances.length);
+            this.minutes = new int[this.distances.length];
+            Arrays.fill(this.minutes, Integer.MAX_VALUE);
+        }
+        DialQueue queue = this.buckets;
+        int[] reached = this.minutes;
+        queue.reset(weights);
+        reached[source] = 0;
+        queue.insertOrDecrease(source, 0);
+        this.queueOperations++;
+        try {
+            this.dial(graph, source, weights, queue, reached);
+        } finally {
+            for (int i = 0; i < this.touched.size(); i++) {
+                reached[this.touched.get(i)] = Integer.MAX_VALUE;
+            }
+        }
+    }
+
+    private void dial(CompactGraph graph, int source, int[] weights, DialQueue queue, int[] reached) {
+        int[] targets = graph.targets;
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            this.queueOperations++;
+            this.visited[current] = true;
+            this.settled++;
+            int distance = reached[current];
+            this.distances[current] = distance / 60.0;
+            int start = graph.offsets[current];
+            int end = graph.offsets[current + 1];
+            this.relaxedEdges += end - start;
+            for (int e = start; e < end; e++) {
+                int target = targets[e];
+                if (this.visited[target]) {
+                    continue;
+                }
+                int newDistance = distance + weights[e];
+                if (newDistance < 0) {
+                    throw new IllegalStateException("Distance from %d overflows the minutes".formatted(source));
+                }
+                if (newDistance < reached[target]) {
+                    if (reached[target] == Integer.MAX_VALUE) {
+                        this.touched.add(target);
+                    }
+                    reached[target] = newDistance;
+                    this.previous[target] = current;
+                    this.improvedEdges++;
+                    queue.insertOrDecrease(target, newDistance);
+                    this.queueOperations++;
+                }
+            }
+        }
+    }
+
+    private void relaxEdges(CompactGraph graph, int current, boolean enqueue) {
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        double distance = this.distances[current];
+        int start = graph.offsets[current];
+        int end = graph.offsets[current + 1];
+        this.relaxedEdges += end - start;
+        for (int e = start; e < end; e++) {
+            int target = targets[e];
+            if (this.visited[target]) {
+                continue;
+            }
+            double newDistance = distance + weights[e];
+            if (newDistance < this.distances[target]) {
+                this.reach(target, newDistance, current);
+                this.improvedEdges++;
+                if (enqueue) {
+                    this.queue.insertOrDecrease(target, newDistance);
+                    this.queueOperations++;
+                }
+            }
+        }
+    }
+}
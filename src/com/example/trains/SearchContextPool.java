@@ -0,0 +1,41 @@
+package com.example.trains;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe pool of {@link SearchContext} for a given vertex count.
+ * Contexts are created on demand; at most {@code maxIdle} of them are kept once released.
+ */
+final class SearchContextPool {
+    private final int vertexCount;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<SearchContext> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    SearchContextPool(int vertexCount) {
+        this(vertexCount, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    SearchContextPool(int vertexCount, int maxIdle) {
+        this.vertexCount = vertexCount;
+        this.maxIdle = maxIdle;
+    }
+
+    SearchContext acquire() {
+        SearchContext context = this.idle.poll();
+        if (context == null) {
+            return new SearchContext(this.vertexCount);
+        }
+        this.idleCount.decrementAndGet();
+        return context;
+    }
+
+    void release(SearchContext context) {
+        if (this.idleCount.incrementAndGet() <= this.maxIdle) {
+            this.idle.offer(context);
+        } else {
+            this.idleCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.trains;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.trains.Search")
+@Label("Shortest-Path Search")
+@Category("Trains")
+@StackTrace(false)
+final class SearchEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(SearchEvent.class);
+
+    @Label("Source")
+    int source;
+
+    @Label("Settled Vertices")
+    int settledVertices;
+
+    @Label("Relaxed Edges")
+    long relaxedEdges;
+
+    @Label("Improved Edges")
+    long improvedEdges;
+
+    @Label("Queue Operations")
+    long queueOperations;
+
+    /**
+     * Starts timing a search, or returns {@code null} without allocating when no recording enables this event.
+     */
+    static SearchEvent start(int source) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        SearchEvent event = new SearchEvent();
+        event.source = source;
+        event.begin();
+        return event;
+    }
+
+    static void finish(SearchEvent event, SearchContext context) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        event.settledVertices = context.settled;
+        event.relaxedEdges = context.relaxedEdges;
+        event.improvedEdges = context.improvedEdges;
+        event.queueOperations = context.queueOperations;
+        event.commit();
+    }
+}
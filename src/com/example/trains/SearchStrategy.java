@@ -0,0 +1,8 @@
+package com.example.trains;
+
+public enum SearchStrategy {
+    LINEAR_SCAN,
+    BINARY_HEAP,
+    DELTA_STEPPING,
+    DIAL
+}
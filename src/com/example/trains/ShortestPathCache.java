@@ -0,0 +1,75 @@
+package com.example.trains;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Least-recently-used cache of shortest-path trees by source vertex, bounded by the memory their arrays take.
+ * Trees computed while the cache was being invalidated are dropped instead of stored.
+ */
+public final class ShortestPathCache {
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+    private long generation;
+
+    public ShortestPathCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    ShortestPathTree get(int source, IntFunction<ShortestPathTree> search) {
+        long expectedGeneration;
+        synchronized (this) {
+            ShortestPathTree tree = this.trees.get(source);
+            if (tree != null) {
+                this.hits.increment();
+                return tree;
+            }
+            expectedGeneration = this.generation;
+        }
+        this.misses.increment();
+        ShortestPathTree tree = search.apply(source);
+        long size = sizeOf(tree);
+        synchronized (this) {
+            if (expectedGeneration != this.generation || size > this.maxBytes) {
+                return tree;
+            }
+            ShortestPathTree previous = this.trees.put(source, tree);
+            this.bytes += size - (previous == null ? 0 : sizeOf(previous));
+            Iterator<Map.Entry<Integer, ShortestPathTree>> eldest = this.trees.entrySet().iterator();
+            while (this.bytes > this.maxBytes && eldest.hasNext()) {
+                this.bytes -= sizeOf(eldest.next().getValue());
+                eldest.remove();
+                this.evictions.increment();
+            }
+        }
+        return tree;
+    }
+
+    public synchronized void invalidate() {
+        this.trees.clear();
+        this.bytes = 0;
+        this.generation++;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.trees.size(), this.bytes);
+    }
+
+    private static long sizeOf(ShortestPathTree tree) {
+        return (long) tree.getGraph().vertexCount() * (Double.BYTES + Integer.BYTES);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.trains;
+
+/**
+ * Immutable result of a single-source query: the distance to and the predecessor of every vertex.
+ * Unreachable vertices have an infinite distance; the source and unreachable vertices have no predecessor (-1).
+ */
+public final class ShortestPathTree {
+    private final CompactGraph graph;
+    private final int source;
+    private final double[] distances;
+    private final int[] previous;
+
+    ShortestPathTree(CompactGraph graph, int source, double[] distances, int[] previous) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.previous = previous;
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public double getDistance(int vertex) {
+        return distances[vertex];
+    }
+
+    public int getPrevious(int vertex) {
+        return previous[vertex];
+    }
+
+    public boolean isReachable(int vertex) {
+        return distances[vertex] != Double.POSITIVE_INFINITY;
+    }
+}
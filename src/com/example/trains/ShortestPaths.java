@@ -0,0 +1,11 @@
+package com.example.trains;
+
+/**
+ * Single-source shortest-path queries over a loaded network, whatever backs its storage.
+ */
+public interface ShortestPaths {
+
+    ShortestPathTree distancesFrom(Vertex start);
+
+    ShortestPathTree distancesFrom(String start);
+}
@@ -0,0 +1,349 @@
+package com.example.trains;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Timetable of elementary connections between the stations of a graph, queried with the Connection Scan Algorithm.
+ * Times are minutes after midnight. Connections are stored in flat arrays sorted by departure, then arrival, so an
+ * earliest-arrival query is a single forward scan from the first connection leaving after the requested time, and a
+ * profile query is a single backward scan. Changing trains takes no time.
+ */
+public final class Timetable {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CompactGraph stations;
+    private final int[] departureStops;
+    private final int[] arrivalStops;
+    private final int[] departures;
+    private final int[] arrivals;
+
+    private Timetable(CompactGraph stations, int[] departureStops, int[] arrivalStops, int[] departures,
+                      int[] arrivals) {
+        this.stations = stations;
+        this.departureStops = departureStops;
+        this.arrivalStops = arrivalStops;
+        this.departures = departures;
+        this.arrivals = arrivals;
+    }
+
+    public static Builder builder(CompactGraph stations) {
+        return new Builder(stations);
+    }
+
+    /**
+     * Reads one connection per line, {@code from, to, departure, arrival}, where stations are indices in the
+     * {@code input.txt} convention and times are written {@code HH:MM}; hours may exceed 23 for journeys past
+     * midnight. Lines that do not parse, with unknown stations or arriving before they depart are ignored.
+     */
+    public static Timetable readFrom(Path path, CompactGraph stations) {
+        Builder builder = builder(stations);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 4) {
+                    continue;
+                }
+                try {
+                    builder.addConnection(Integer.parseInt(fields[0].strip()), Integer.parseInt(fields[1].strip()),
+                            parseTime(fields[2]), parseTime(fields[3]));
+                } catch (IllegalArgumentException ignore) {}
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return builder.build();
+    }
+
+    private static int parseTime(String field) {
+        String time = field.strip();
+        int colon = time.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected HH:MM, got %s".formatted(time));
+        }
+        int hours = Integer.parseInt(time.substring(0, colon));
+        int minutes = Integer.parseInt(time.substring(colon + 1));
+        if (hours < 0 || minutes < 0 || minutes >= 60) {
+            throw new IllegalArgumentException("Expected HH:MM, got %s".formatted(time));
+        }
+        return hours * 60 + minutes;
+    }
+
+    public CompactGraph getStations() {
+        return stations;
+    }
+
+    public int connectionCount() {
+        return this.departures.length;
+    }
+
+    public int departureStop(int connection) {
+        return this.departureStops[connection];
+    }
+
+    public int arrivalStop(int connection) {
+        return this.arrivalStops[connection];
+    }
+
+    public int departure(int connection) {
+        return this.departures[connection];
+    }
+
+    public int arrival(int connection) {
+        return this.arrivals[connection];
+    }
+
+    /**
+     * Returns the earliest arrival at every station when leaving {@code source} at {@code time}, or
+     * {@link #UNREACHABLE}.
+     */
+    public int[] earliestArrivals(int source, int time) {
+        int[] arrivalTimes = new int[this.stations.vertexCount()];
+        this.scan(source, -1, time, arrivalTimes, null);
+        return arrivalTimes;
+    }
+
+    /**
+     * Returns the journey leaving {@code source} at {@code time} or later that reaches {@code target} first. The scan
+     * stops at the first connection departing after that arrival.
+     */
+    public Journey earliestArrival(int source, int target, int time) {
+        int vertexCount = this.stations.vertexCount();
+        int[] arrivalTimes = new int[vertexCount];
+        int[] enteredBy = new int[vertexCount];
+        this.scan(source, target, time, arrivalTimes, enteredBy);
+        if (arrivalTimes[target] == UNREACHABLE || source == target) {
+            return new Journey(source, target, new int[0], arrivalTimes[target]);
+        }
+        IntList legs = new IntList();
+        for (int stop = target; stop != source; stop = this.departureStops[enteredBy[stop]]) {
+            legs.add(enteredBy[stop]);
+        }
+        int[] connections = new int[legs.size()];
+        for (int i = 0; i < connections.length; i++) {
+            connections[i] = legs.get(connections.length - 1 - i);
+        }
+        return new Journey(source, target, connections, arrivalTimes[target]);
+    }
+
+    private void scan(int source, int target, int time, int[] arrivalTimes, int[] enteredBy) {
+        Arrays.fill(arrivalTimes, UNREACHABLE);
+        arrivalTimes[source] = time;
+        int[] departureStops = this.departureStops;
+        int[] arrivalStops = this.arrivalStops;
+        int[] departures = this.departures;
+        int[] arrivals = this.arrivals;
+        for (int c = this.firstDepartingAt(time); c < departures.length; c++) {
+            if (target >= 0 && departures[c] >= arrivalTimes[target]) {
+                return;
+            }
+            if (arrivalTimes[departureStops[c]] <= departures[c] && arrivals[c] < arrivalTimes[arrivalStops[c]]) {
+                arrivalTimes[arrivalStops[c]] = arrivals[c];
+                if (enteredBy != null) {
+                    enteredBy[arrivalStops[c]] = c;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns every Pareto-optimal journey from {@code source} to {@code target} departing between {@code from} and
+     * {@code to}: no other journey in the window departs later and arrives no later.
+     * Connections are scanned backwards from the last one; every station keeps its optimal (departure, arrival at
+     * the target) pairs in decreasing departure order, so the best way on after an arrival is a binary search. The
+     * source also keeps the pairs departing by {@code to} apart, since a journey leaving after the window must not
+     * prune one inside it.
+     */
+    public Profile profile(int source, int target, int from, int to) {
+        int vertexCount = this.stations.vertexCount();
+        IntList[] profileDepartures = new IntList[vertexCount];
+        IntList[] profileArrivals = new IntList[vertexCount];
+        IntList windowDepartures = new IntList();
+        IntList windowArrivals = new IntList();
+        int first = this.firstDepartingAt(from);
+        for (int c = this.departures.length - 1; c >= first; c--) {
+            int stop = this.departureStops[c];
+            int next = this.arrivalStops[c];
+            if (stop == target) {
+                continue;
+            }
+            int arrival = next == target
+                    ? this.arrivals[c]
+                    : evaluate(profileDepartures[next], profileArrivals[next], this.arrivals[c]);
+            if (arrival == UNREACHABLE) {
+                continue;
+            }
+            if (stop == source && this.departures[c] <= to) {
+                addOptimal(windowDepartures, windowArrivals, this.departures[c], arrival);
+            }
+            if (profileDepartures[stop] == null) {
+                profileDepartures[stop] = new IntList();
+                profileArrivals[stop] = new IntList();
+            }
+            addOptimal(profileDepartures[stop], profileArrivals[stop], this.departures[c], arrival);
+        }
+        int[] departures = new int[windowDepartures.size()];
+        int[] arrivals = new int[windowArrivals.size()];
+        for (int i = 0; i < departures.length; i++) {
+            departures[i] = windowDepartures.get(departures.length - 1 - i);
+            arrivals[i] = windowArrivals.get(departures.length - 1 - i);
+        }
+        return new Profile(source, target, departures, arrivals);
+    }
+
+    /**
+     * Adds a pair to a profile kept in decreasing departure order unless a later departure arrives no later.
+     */
+    private static void addOptimal(IntList departures, IntList arrivals, int departure, int arrival) {
+        int size = departures.size();
+        if (size > 0 && arrival >= arrivals.get(size - 1)) {
+            return;
+        }
+        if (size > 0 && departures.get(size - 1) == departure) {
+            departures.removeLast();
+            arrivals.removeLast();
+        }
+        departures.add(departure);
+        arrivals.add(arrival);
+    }
+
+    private static int evaluate(IntList departures, IntList arrivals, int time) {
+        if (departures == null) {
+            return UNREACHABLE;
+        }
+        int low = 0;
+        int high = departures.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures.get(middle) >= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low == 0 ? UNREACHABLE : arrivals.get(low - 1);
+    }
+
+    private int firstDepartingAt(int time) {
+        int low = 0;
+        int high = this.departures.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.departures[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Connections from {@code source} to {@code target} in travel order, arriving at {@code arrival}; empty with an
+     * {@link Timetable#UNREACHABLE} arrival when the target cannot be reached.
+     */
+    public record Journey(
+            int source,
+            int target,
+            int[] connections,
+            int arrival
+    ) {
+        public boolean isReachable() {
+            return arrival != UNREACHABLE;
+        }
+    }
+
+    /**
+     * Pareto-optimal journeys between two stations, by increasing departure and strictly increasing arrival.
+     */
+    public record Profile(
+            int source,
+            int target,
+            int[] departures,
+            int[] arrivals
+    ) {
+        public int size() {
+            return departures.length;
+        }
+    }
+
+    public static final class Builder {
+        private final CompactGraph stations;
+        private int[] departureStops = new int[16];
+        private int[] arrivalStops = new int[16];
+        private int[] departures = new int[16];
+        private int[] arrivals = new int[16];
+        private int connectionCount;
+
+        private Builder(CompactGraph stations) {
+            this.stations = stations;
+        }
+
+        public Builder addConnection(int from, int to, int departure, int arrival) {
+            int vertexCount = this.stations.vertexCount();
+            if (from < 0 || from >= vertexCount || to < 0 || to >= vertexCount) {
+                throw new IllegalArgumentException("No such connection %d -> %d".formatted(from, to));
+            }
+            if (departure < 0 || arrival < departure || arrival == UNREACHABLE) {
+                throw new IllegalArgumentException("Connection %d -> %d arrives at %d before departing at %d"
+                        .formatted(from, to, arrival, departure));
+            }
+            if (this.connectionCount == this.departures.length) {
+                int capacity = this.connectionCount * 2;
+                this.departureStops = Arrays.copyOf(this.departureStops, capacity);
+                this.arrivalStops = Arrays.copyOf(this.arrivalStops, capacity);
+                this.departures = Arrays.copyOf(this.departures, capacity);
+                this.arrivals = Arrays.copyOf(this.arrivals, capacity);
+            }
+            this.departureStops[this.connectionCount] = from;
+            this.arrivalStops[this.connectionCount] = to;
+            this.departures[this.connectionCount] = departure;
+            this.arrivals[this.connectionCount] = arrival;
+            this.connectionCount++;
+            return this;
+        }
+
+        /**
+         * Sorts the connections by departure, then arrival, with two primitive sorts: the second one orders by
+         * departure and breaks ties by the rank of each connection in the first one, by arrival.
+         */
+        public Timetable build() {
+            int count = this.connectionCount;
+            long[] keys = new long[count];
+            for (int c = 0; c < count; c++) {
+                keys[c] = (long) this.arrivals[c] << 32 | c;
+            }
+            Arrays.sort(keys);
+            int[] rank = new int[count];
+            for (int r = 0; r < count; r++) {
+                rank[(int) keys[r]] = r;
+            }
+            for (int c = 0; c < count; c++) {
+                keys[c] = (long) this.departures[c] << 32 | rank[c];
+            }
+            Arrays.sort(keys);
+            int[] byArrival = new int[count];
+            for (int r = 0; r < count; r++) {
+                byArrival[rank[r]] = r;
+            }
+            int[] sortedDepartureStops = new int[count];
+            int[] sortedArrivalStops = new int[count];
+            int[] sortedDepartures = new int[count];
+            int[] sortedArrivals = new int[count];
+            for (int i = 0; i < count; i++) {
+                int c = byArrival[(int) keys[i]];
+                sortedDepartureStops[i] = this.departureStops[c];
+                sortedArrivalStops[i] = this.arrivalStops[c];
+                sortedDepartures[i] = this.departures[c];
+                sortedArrivals[i] = this.arrivals[c];
+            }
+            return new Timetable(this.stations, sortedDepartureStops, sortedArrivalStops, sortedDepartures,
+                    sortedArrivals);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.trains;
+
+import java.util.Arrays;
+
+/**
+ * Renumbering of the vertices of a graph, with the renumbered graph and the permutation in both directions.
+ * Searches run on the renumbered graph for its memory locality; their results are mapped back to the original
+ * numbering, so that indices keep following the {@code input.txt} convention.
+ */
+final class VertexOrder {
+    final CompactGraph source;
+    final CompactGraph graph;
+    final int[] toInternal;
+    final int[] toOriginal;
+
+    private VertexOrder(CompactGraph source, CompactGraph graph, int[] toInternal, int[] toOriginal) {
+        this.source = source;
+        this.graph = graph;
+        this.toInternal = toInternal;
+        this.toOriginal = toOriginal;
+    }
+
+    /**
+     * Reverse Cuthill-McKee order of the undirected graph underlying {@code graph}: a breadth-first search from a
+     * vertex of smallest degree in each component, visiting neighbours by increasing degree, then reversed. Adjacent
+     * stations end up with close indices, so relaxing the edges of a vertex touches few cache lines.
+     */
+    static VertexOrder reverseCuthillMcKee(CompactGraph graph) {
+        int vertexCount = graph.vertexCount();
+        CompactGraph reverse = graph.reverse();
+        int[] degrees = new int[vertexCount];
+        int maxDegree = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            degrees[v] = graph.edgesEnd(v) - graph.edgesStart(v) + reverse.edgesEnd(v) - reverse.edgesStart(v);
+            maxDegree = Math.max(maxDegree, degrees[v]);
+        }
+        int[] byDegree = sortByDegree(degrees, maxDegree);
+        boolean[] placed = new boolean[vertexCount];
+        int[] order = new int[vertexCount];
+        int size = 0;
+        long[] neighbours = new long[Math.max(maxDegree, 1)];
+        for (int start : byDegree) {
+            if (placed[start]) {
+                continue;
+            }
+            placed[start] = true;
+            order[size++] = start;
+            for (int head = size - 1; head < size; head++) {
+                int vertex = order[head];
+                int count = 0;
+                for (CompactGraph adjacency : new CompactGraph[] {graph, reverse}) {
+                    for (int e = adjacency.edgesStart(vertex), end = adjacency.edgesEnd(vertex); e < end; e++) {
+                        int next = adjacency.target(e);
+                        if (!placed[next]) {
+                            placed[next] = true;
+                            neighbours[count++] = (long) degrees[next] << 32 | next;
+                        }
+                    }
+                }
+                Arrays.sort(neighbours, 0, count);
+                for (int i = 0; i < count; i++) {
+                    order[size++] = (int) neighbours[i];
+                }
+            }
+        }
+        for (int i = 0, j = vertexCount - 1; i < j; i++, j--) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return of(graph, order);
+    }
+
+    private static int[] sortByDegree(int[] degrees, int maxDegree) {
+        int[] starts = new int[maxDegree + 2];
+        for (int degree : degrees) {
+            starts[degree + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            starts[d + 1] += starts[d];
+        }
+        int[] sorted = new int[degrees.length];
+        for (int v = 0; v < degrees.length; v++) {
+            sorted[starts[degrees[v]]++] = v;
+        }
+        return sorted;
+    }
+
+    /**
+     * Renumbers {@code graph} so that original vertex {@code toOriginal[i]} becomes vertex {@code i}, keeping the
+     * edges of every vertex in their original order.
+     */
+    static VertexOrder of(CompactGraph graph, int[] toOriginal) {
+        int vertexCount = graph.vertexCount();
+        int[] toInternal = new int[vertexCount];
+        Arrays.fill(toInternal, -1);
+        for (int i = 0; i < vertexCount; i++) {
+            if (toInternal[toOriginal[i]] >= 0) {
+                throw new IllegalArgumentException("Vertex %d appears twice".formatted(toOriginal[i]));
+            }
+            toInternal[toOriginal[i]] = i;
+        }
+        String[] names = new String[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            names[i] = graph.name(toOriginal[i]);
+        }
+        CompactGraph reverse = graph.reverse();
+        int[][] forward = permute(graph, toInternal, toOriginal);
+        int[][] backward = permute(reverse, toInternal, toOriginal);
+        double[] forwardWeights = permuteWeights(graph, toOriginal);
+        double[] backwardWeights = permuteWeights(reverse, toOriginal);
+        CompactGraph renumbered = CompactGraph.of(names, forward[0], forward[1], forwardWeights,
+                backward[0], backward[1], backwardWeights);
+        return new VertexOrder(graph, renumbered, toInternal, toOriginal);
+    }
+
+    private static int[][] permute(CompactGraph graph, int[] toInternal, int[] toOriginal) {
+        int[] offsets = new int[toOriginal.length + 1];
+        int[] targets = new int[graph.edgeCount()];
+        for (int i = 0; i < toOriginal.length; i++) {
+            int vertex = toOriginal[i];
+            int position = offsets[i];
+            for (int e = graph.edgesStart(vertex), end = graph.edgesEnd(vertex); e < end; e++) {
+                targets[position++] = toInternal[graph.target(e)];
+            }
+            offsets[i + 1] = position;
+        }
+        return new int[][] {offsets, targets};
+    }
+
+    private static double[] permuteWeights(CompactGraph graph, int[] toOriginal) {
+        double[] weights = new double[graph.edgeCount()];
+        int position = 0;
+        for (int vertex : toOriginal) {
+            int start = graph.edgesStart(vertex);
+            int length = graph.edgesEnd(vertex) - start;
+            System.arraycopy(graph.weights, start, weights, position, length);
+            position += length;
+        }
+        return weights;
+    }
+
+    /**
+     * Maps the state of a search on the renumbered graph back to a tree of the original graph.
+     */
+    ShortestPathTree toTree(SearchContext context, int source) {
+        int vertexCount = this.toOriginal.length;
+        double[] distances = new double[vertexCount];
+        int[] previous = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            int vertex = this.toOriginal[i];
+            int parent = context.previous[i];
+            distances[vertex] = context.distances[i];
+            previous[vertex] = parent < 0 ? -1 : this.toOriginal[parent];
+        }
+        return new ShortestPathTree(this.source, source, distances, previous);
+    }
+
+    Isochrone toOriginal(Isochrone isochrone) {
+        int[] vertices = new int[isochrone.size()];
+        double[] distances = new double[isochrone.size()];
+        int[] previous = new int[isochrone.size()];
+        for (int i = 0; i < vertices.length; i++) {
+            int parent = isochrone.getPrevious(i);
+            vertices[i] = this.toOriginal[isochrone.getVertex(i)];
+            distances[i] = isochrone.getDistance(i);
+            previous[i] = parent < 0 ? -1 : this.toOriginal[parent];
+        }
+        return new Isochrone(this.source, this.toOriginal[isochrone.getSource()], isochrone.getMaxCost(), vertices,
+                distances, previous);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.trains;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompactGraphTest {
+
+    @Test
+    void testBuildPacksEdgesBySourceInInsertionOrder() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (String name : new String[] {"Lyon", "Paris", "Dijon", "Valence"}) {
+            builder.addVertex(name);
+        }
+        builder.addEdge(2, 0, 1.5)
+                .addEdge(0, 1, 2.0)
+                .addEdge(2, 3, 0.5)
+                .addEdge(0, 2, 1.0)
+                .addEdge(0, 1, 3.0);
+        CompactGraph graph = builder.build();
+
+        assertEquals(4, graph.vertexCount());
+        assertEquals(5, graph.edgeCount());
+        assertEquals("Dijon", graph.name(2));
+        assertArrayEquals(new int[] {0, 3, 3, 5, 5}, graph.offsets);
+        assertArrayEquals(new int[] {1, 2, 1, 0, 3}, graph.targets);
+        assertArrayEquals(new double[] {2.0, 1.0, 3.0, 1.5, 0.5}, graph.weights);
+        assertEquals(3, graph.edgesStart(2));
+        assertEquals(5, graph.edgesEnd(2));
+        assertEquals(graph.edgesStart(1), graph.edgesEnd(1));
+    }
+
+    @Test
+    void testBuilderGrowsPastItsInitialCapacity() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        builder.addVertex("A");
+        builder.addVertex("B");
+        for (int i = 0; i < 100; i++) {
+            builder.addEdge(i % 2, (i + 1) % 2, i);
+        }
+        CompactGraph graph = builder.build();
+
+        assertEquals(100, graph.edgeCount());
+        for (int edge = graph.edgesStart(1); edge < graph.edgesEnd(1); edge++) {
+            assertEquals(0, graph.target(edge));
+            assertEquals(1, (int) graph.weight(edge) % 2);
+        }
+        assertEquals(99.0, graph.weight(graph.edgesEnd(1) - 1));
+    }
+
+    @Test
+    void testRejectsEdgesToUnknownVertices() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        builder.addVertex("Lyon");
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 1, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(-1, 0, 1.0));
+    }
+}
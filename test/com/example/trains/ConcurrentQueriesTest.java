@@ -0,0 +1,57 @@
+package com.example.trains;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConcurrentQueriesTest {
+
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void testVirtualThreadsMatchSerialRun() throws Exception {
+        Graph graph = RandomGraphs.load(RandomGraphs.random(500, 2_500, 42));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertSameAsSerial(graph, executor);
+        }
+    }
+
+    @Test
+    void testPlatformThreadsMatchSerialRun() throws Exception {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            assertSameAsSerial(graph, executor);
+        }
+    }
+
+    private void assertSameAsSerial(Graph graph, ExecutorService executor)
+            throws InterruptedException, ExecutionException {
+        CompactGraph adjacency = graph.getAdjacency();
+        int vertexCount = adjacency.vertexCount();
+        List<ShortestPathTree> serial = new ArrayList<>();
+        for (int v = 0; v < vertexCount; v++) {
+            serial.add(graph.distancesFrom(adjacency.name(v)));
+        }
+        List<Future<ShortestPathTree>> futures = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            String source = adjacency.name(i % vertexCount);
+            futures.add(executor.submit(() -> graph.distancesFrom(source)));
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            ShortestPathTree expected = serial.get(i % vertexCount);
+            ShortestPathTree actual = futures.get(i).get();
+            assertEquals(expected.getSource(), actual.getSource());
+            for (int v = 0; v < vertexCount; v++) {
+                assertEquals(expected.getDistance(v), actual.getDistance(v), "Distance mismatch for %d".formatted(v));
+                assertEquals(expected.getPrevious(v), actual.getPrevious(v), "Previous mismatch for %d".formatted(v));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trains;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContractionHierarchyTest {
+
+    private static final int PAIRS = 500;
+
+    @Test
+    void testRandomPairsMatchDistancesFrom() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Graph graph = RandomGraphs.load(RandomGraphs.random(500, 500 * (int) seed, seed));
+            graph.prepareHierarchy();
+            Random random = new Random(seed);
+            for (int i = 0; i < PAIRS; i++) {
+                Vertex source = ShortestPathTest.randomVertex(graph, random);
+                Vertex target = ShortestPathTest.randomVertex(graph, random);
+                ShortestPathTree tree = graph.distancesFrom(source);
+                Route route = graph.shortestPath(source, target, QueryMode.CONTRACTION_HIERARCHY);
+                assertEquals(tree.getDistance(target.getIndex()), route.cost());
+                ShortestPathTest.assertValidPath(graph.getAdjacency(), route);
+            }
+        }
+    }
+
+    @Test
+    void testHierarchyOfEditedWeightsDoesNotMatch() {
+        CompactGraph adjacency = RandomGraphs.random(200, 800, 5);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(adjacency);
+        assertTrue(hierarchy.matches(adjacency));
+        assertFalse(hierarchy.matches(RandomGraphs.withWeight(adjacency, 0, adjacency.weight(0) + 1)));
+    }
+
+    @Test
+    void testUnpacksRouteOfInput() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.prepareHierarchy();
+        Route route = graph.shortestPath("Bordeaux", "Narbonne", QueryMode.CONTRACTION_HIERARCHY);
+        assertArrayEquals(new int[] {6, 1, 5, 8}, route.path());
+    }
+
+    @Test
+    void testUnpacksPathsOfInput() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.prepareHierarchy();
+        CompactGraph adjacency = graph.getAdjacency();
+        for (int source = 0; source < adjacency.vertexCount(); source++) {
+            ShortestPathTree tree = graph.distancesFrom(adjacency.name(source));
+            for (int target = 0; target < adjacency.vertexCount(); target++) {
+                Route route = graph.shortestPath(adjacency.name(source), adjacency.name(target),
+                        QueryMode.CONTRACTION_HIERARCHY);
+                assertEquals(tree.getDistance(target), route.cost(), 1e-9);
+                ShortestPathTest.assertValidPath(adjacency, route);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.trains;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeltaSteppingTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 2_000, 200_000})
+    void testDistancesMatchDijkstra(int vertexCount) {
+        CompactGraph adjacency = RandomGraphs.random(vertexCount, 4 * vertexCount, vertexCount);
+        Graph graph = RandomGraphs.load(adjacency);
+        for (int source : new int[] {0, vertexCount / 2, vertexCount - 1}) {
+            graph.setStrategy(SearchStrategy.BINARY_HEAP);
+            ShortestPathTree expected = graph.distancesFrom(new Vertex(source, ""));
+            graph.setStrategy(SearchStrategy.DELTA_STEPPING);
+            ShortestPathTree actual = graph.distancesFrom(new Vertex(source, ""));
+            for (int v = 0; v < vertexCount; v++) {
+                assertEquals(expected.getDistance(v), actual.getDistance(v));
+            }
+            assertValidTree(adjacency, actual);
+        }
+    }
+
+    @Test
+    void testZeroWeightCyclesGiveATree() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < 6; v++) {
+            builder.addVertex("V" + v);
+        }
+        builder.addEdge(0, 1, 1).addEdge(1, 2, 0).addEdge(2, 1, 0).addEdge(2, 3, 0).addEdge(3, 2, 0)
+                .addEdge(3, 4, 0).addEdge(4, 3, 0).addEdge(0, 4, 1);
+        CompactGraph adjacency = builder.build();
+        Graph graph = RandomGraphs.load(adjacency);
+        graph.setStrategy(SearchStrategy.DELTA_STEPPING);
+        ShortestPathTree tree = graph.distancesFrom(new Vertex(0, ""));
+        for (int v = 1; v < 5; v++) {
+            assertEquals(1, tree.getDistance(v));
+        }
+        assertTrue(!tree.isReachable(5));
+        assertValidTree(adjacency, tree);
+    }
+
+    @Test
+    void testSearchCountersAreReported() {
+        Graph graph = RandomGraphs.load(RandomGraphs.random(5_000, 20_000, 41));
+        MetricsRecorder heap = new MetricsRecorder();
+        graph.setMetrics(heap);
+        graph.distancesFrom(new Vertex(0, ""));
+        MetricsRecorder delta = new MetricsRecorder();
+        graph.setMetrics(delta);
+        graph.setStrategy(SearchStrategy.DELTA_STEPPING);
+        graph.distancesFrom(new Vertex(0, ""));
+        assertEquals(heap.settledVertices(), delta.settledVertices());
+        assertTrue(delta.relaxedEdges() >= heap.relaxedEdges());
+        assertTrue(delta.improvedEdges() >= delta.settledVertices() - 1);
+        assertEquals(1 + delta.improvedEdges(), delta.queueOperations());
+    }
+
+    private static void assertValidTree(CompactGraph graph, ShortestPathTree tree) {
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (v == tree.getSource() || !tree.isReachable(v)) {
+                assertEquals(-1, tree.getPrevious(v));
+                continue;
+            }
+            int previous = tree.getPrevious(v);
+            boolean tight = false;
+            for (int e = graph.edgesStart(previous); e < graph.edgesEnd(previous); e++) {
+                tight |= graph.target(e) == v && tree.getDistance(previous) + graph.weight(e) == tree.getDistance(v);
+            }
+            assertTrue(tight, "Edge %d -> %d is not tight".formatted(previous, v));
+            int steps = 0;
+            for (int u = v; u != tree.getSource(); u = tree.getPrevious(u)) {
+                assertTrue(++steps <= graph.vertexCount(), "Cycle through %d".formatted(v));
+            }
+        }
+    }
+}
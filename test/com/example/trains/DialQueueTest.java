@@ -0,0 +1,88 @@
+package com.example.trains;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DialQueueTest {
+
+    @Test
+    void testDistancesMatchDijkstra() {
+        CompactGraph adjacency = RandomGraphs.random(3_000, 12_000, 7);
+        Graph graph = RandomGraphs.load(adjacency);
+        for (int source : new int[] {0, 1_500, 2_999}) {
+            graph.setStrategy(SearchStrategy.BINARY_HEAP);
+            ShortestPathTree expected = graph.distancesFrom(new Vertex(source, ""));
+            graph.setStrategy(SearchStrategy.DIAL);
+            ShortestPathTree actual = graph.distancesFrom(new Vertex(source, ""));
+            for (int v = 0; v < adjacency.vertexCount(); v++) {
+                assertEquals(expected.getDistance(v), actual.getDistance(v), 1e-9);
+                if (actual.getPrevious(v) >= 0) {
+                    assertEquals(actual.getDistance(v), actual.getDistance(actual.getPrevious(v))
+                            + RandomGraphs.cheapest(adjacency, actual.getPrevious(v), v), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQueueIsEmptiedAfterAnAbandonedSearch() {
+        int[] weights = {3, 5};
+        DialQueue queue = new DialQueue(4);
+        queue.reset(weights);
+        queue.insertOrDecrease(0, 0);
+        queue.insertOrDecrease(1, 4);
+        queue.insertOrDecrease(2, 5);
+        assertEquals(0, queue.poll());
+        queue.reset(weights);
+        assertTrue(queue.isEmpty());
+        queue.insertOrDecrease(2, 2);
+        queue.insertOrDecrease(3, 1);
+        assertEquals(3, queue.poll());
+        assertEquals(2, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testHoursAreConvertedToWholeMinutes() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        builder.addVertex("Lyon");
+        builder.addVertex("Paris");
+        builder.addVertex("Dijon");
+        CompactGraph adjacency = builder.addEdge(0, 1, 1.9).addEdge(1, 2, 0.6).addEdge(0, 2, 2.5).addEdge(2, 0, 0)
+                .build();
+        assertArrayEquals(new int[] {114, 150, 36, 0}, adjacency.minutes());
+
+        Graph graph = RandomGraphs.load(adjacency);
+        graph.setStrategy(SearchStrategy.DIAL);
+        ShortestPathTree tree = graph.distancesFrom("Lyon");
+        assertEquals(1.9, tree.getDistance(1));
+        assertEquals(2.5, tree.getDistance(2));
+    }
+
+    @Test
+    void testWeightsThatAreNotWholeMinutesAreRejected() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        builder.addVertex("Lyon");
+        builder.addVertex("Paris");
+        Graph graph = RandomGraphs.load(builder.addEdge(0, 1, 1.0 / 7).build());
+        assertThrows(IllegalStateException.class, () -> graph.setStrategy(SearchStrategy.DIAL));
+        assertEquals(SearchStrategy.BINARY_HEAP, graph.getStrategy());
+    }
+
+    @Test
+    void testEditsThatAreNotWholeMinutesAreRejected() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.setStrategy(SearchStrategy.DIAL);
+        Vertex lyon = graph.getVertex("Lyon");
+        Vertex bordeaux = graph.getVertex("Bordeaux");
+        assertThrows(IllegalArgumentException.class, () -> graph.insertEdge(lyon, bordeaux, 1.0 / 7));
+        assertThrows(IllegalArgumentException.class, () -> graph.updateEdge(lyon, graph.getVertex("Paris"), 0.01));
+        graph.insertEdge(lyon, bordeaux, 2.25);
+        assertEquals(2.25, graph.distancesFrom(lyon).getDistance(bordeaux.getIndex()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DistanceMatrixTest {
+
+    @Test
+    void testDistanceMatrixMatchesSerialRun(@TempDir Path directory) throws IOException {
+        Graph graph = RandomGraphs.load(RandomGraphs.random(300, 1_200, 5));
+        DistanceMatrix matrix = graph.distanceMatrix();
+        Path file = directory.resolve("matrix.bin");
+        graph.writeDistanceMatrix(file);
+        ByteBuffer written = ByteBuffer.wrap(Files.readAllBytes(file));
+        int rows = written.getInt();
+        int columns = written.getInt();
+        assertEquals(matrix.rows(), rows);
+        assertEquals(matrix.columns(), columns);
+        for (int row = 0; row < rows; row++) {
+            ShortestPathTree tree = graph.distancesFrom(graph.getAdjacency().name(matrix.source(row)));
+            for (int v = 0; v < columns; v++) {
+                assertEquals(tree.getDistance(v), matrix.distance(row, v));
+                assertEquals(tree.getPrevious(v), matrix.predecessor(row, v));
+                assertEquals(tree.getDistance(v), written.getDouble(8 + 8 * (row * columns + v)));
+                assertEquals(tree.getPrevious(v), written.getInt(8 + 8 * rows * columns + 4 * (row * columns + v)));
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.trains;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DistanceTableTest {
+
+    @Test
+    void testTablesMatchDistancesFrom() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Graph graph = RandomGraphs.load(grid(20, 20, seed));
+            int vertexCount = graph.getAdjacency().vertexCount();
+            Random random = new Random(seed);
+            int[] sources = random.ints(40, 0, vertexCount).toArray();
+            int[] targets = random.ints(60, 0, vertexCount).toArray();
+            targets[1] = targets[0];
+            DistanceTable plain = graph.distanceTable(sources, targets);
+            graph.prepareHierarchy();
+            DistanceTable buckets = graph.distanceTable(sources, targets);
+            for (int row = 0; row < sources.length; row++) {
+                ShortestPathTree tree = graph.distancesFrom(new Vertex(sources[row], ""));
+                for (int column = 0; column < targets.length; column++) {
+                    assertEquals(tree.getDistance(targets[column]), plain.getDistance(row, column));
+                    assertEquals(tree.getDistance(targets[column]), buckets.getDistance(row, column));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testNamesAreResolvedIgnoringCase() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        DistanceTable table = graph.distanceTable(List.of("LYON", "paris"), List.of("Valence", "lyon"));
+        assertEquals(2, table.rows());
+        assertEquals(2, table.columns());
+        assertEquals(0.6, table.getDistance(0, 0));
+        assertEquals(0, table.getDistance(0, 1));
+        assertEquals(1.8, table.getDistance(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> graph.distanceTable(List.of("Nowhere"), List.of("Lyon")));
+    }
+
+    @Test
+    void testFirstOfDuplicateNamesWins() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        builder.addVertex("Évian");
+        builder.addVertex("ÉVIAN");
+        builder.addVertex("Saint-Étienne");
+        Graph graph = RandomGraphs.load(builder.build());
+        assertEquals(0, graph.getVertex("éVIAN").getIndex());
+        assertEquals(2, graph.getVertex("SAINT-éTIENNE").getIndex());
+        assertThrows(IllegalArgumentException.class, () -> graph.getVertex("Evian"));
+    }
+
+    /**
+     * Builds a rail-like network: a grid of stations linked to their neighbours in both directions, with a few
+     * missing links and random weights.
+     */
+    private static CompactGraph grid(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < rows * columns; v++) {
+            builder.addVertex("V" + v);
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int v = row * columns + column;
+                if (column + 1 < columns && random.nextInt(10) > 0) {
+                    builder.addEdge(v, v + 1, 0.25 + random.nextInt(8) * 0.25);
+                    builder.addEdge(v + 1, v, 0.25 + random.nextInt(8) * 0.25);
+                }
+                if (row + 1 < rows && random.nextInt(10) > 0) {
+                    builder.addEdge(v, v + columns, 0.25 + random.nextInt(8) * 0.25);
+                    builder.addEdge(v + columns, v, 0.25 + random.nextInt(8) * 0.25);
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trains;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DotExporterTest {
+
+    @Test
+    void testStreamingExportMatchesPrintf(@TempDir Path directory) throws Exception {
+        CompactGraph adjacency = RandomGraphs.random(300, 1_200, 21);
+        Graph graph = RandomGraphs.load(adjacency);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(expected, true, StandardCharsets.UTF_8);
+        output.printf("digraph {%n");
+        for (int v = 0; v < adjacency.vertexCount(); v++) {
+            for (int e = adjacency.edgesStart(v); e < adjacency.edgesEnd(v); e++) {
+                output.printf(Locale.ROOT, "\"%s\" -> \"%s\" [w=%f]%n",
+                        adjacency.name(v), adjacency.name(adjacency.target(e)), adjacency.weight(e));
+            }
+        }
+        output.printf("}%n");
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        graph.toDotFormat(new PrintStream(streamed, true, StandardCharsets.UTF_8));
+        assertEquals(expected.toString(StandardCharsets.UTF_8), streamed.toString(StandardCharsets.UTF_8));
+
+        graph.toDotFormat(directory.resolve("graph").toString());
+        graph.toDotFormat(directory.resolve("graph.dot.gz").toString());
+        assertEquals(streamed.toString(StandardCharsets.UTF_8), Files.readString(directory.resolve("graph.dot")));
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(directory.resolve("graph.dot.gz")))) {
+            assertEquals(streamed.toString(StandardCharsets.UTF_8),
+                    new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testSubgraphExports(@TempDir Path directory) throws Exception {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        Path tree = directory.resolve("tree.dot");
+        graph.toDotFormat(graph.distancesFrom("Toulouse"), tree.toString());
+        List<String> treeLines = Files.readAllLines(tree);
+        assertEquals(10, treeLines.size());
+        assertEquals("\"Montpellier\" -> \"Lyon\" [w=1.600000]", treeLines.get(1));
+
+        Path neighbourhood = directory.resolve("dijon.dot");
+        graph.toDotFormat(graph.getVertex("Dijon"), 1, neighbourhood.toString());
+        assertEquals(List.of(
+                "digraph {",
+                "\"Lyon\" -> \"Dijon\" [w=1.600000]",
+                "\"Dijon\" -> \"Lyon\" [w=2.000000]",
+                "}"
+        ), Files.readAllLines(neighbourhood));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.trains;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DynamicGraphTest {
+
+    @Test
+    void testRepairedTreesMatchFullRecomputation() {
+        int vertexCount = 300;
+        DynamicGraph graph = new DynamicGraph(RandomGraphs.random(vertexCount, 1_200, 17));
+        IncrementalShortestPathTree[] trees = {graph.track(0), graph.track(42), graph.track(299)};
+        Random random = new Random(17);
+        for (int i = 0; i < 2_000; i++) {
+            int source = random.nextInt(vertexCount);
+            CompactGraph current = graph.toCompactGraph();
+            if (current.edgesEnd(source) == current.edgesStart(source) || random.nextInt(3) == 0) {
+                graph.insertEdge(source, random.nextInt(vertexCount), random.nextInt(20) * 0.25);
+                continue;
+            }
+            int edge = current.edgesStart(source) + random.nextInt(current.edgesEnd(source) - current.edgesStart(source));
+            if (random.nextBoolean()) {
+                graph.updateEdge(source, current.target(edge), random.nextInt(20) * 0.25);
+            } else {
+                graph.removeEdge(source, current.target(edge));
+            }
+            if (i % 50 == 0) {
+                for (IncrementalShortestPathTree tree : trees) {
+                    assertMatchesRecomputation(graph.toCompactGraph(), tree);
+                }
+            }
+        }
+        for (IncrementalShortestPathTree tree : trees) {
+            assertMatchesRecomputation(graph.toCompactGraph(), tree);
+        }
+    }
+
+    @Test
+    void testOnlyAffectedSubtreeIsResettled() {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < 1_000; v++) {
+            builder.addVertex("V" + v);
+        }
+        for (int v = 1; v < 1_000; v++) {
+            builder.addEdge(v - 1, v, 1);
+        }
+        builder.addEdge(0, 990, 995);
+        DynamicGraph graph = new DynamicGraph(builder.build());
+        IncrementalShortestPathTree tree = graph.track(0);
+        assertEquals(1_000, tree.getSettled());
+        graph.updateEdge(980, 981, 3);
+        assertEquals(19, tree.getSettled());
+        assertEquals(1_001, tree.getDistance(999));
+        graph.removeEdge(989, 990);
+        assertEquals(10, tree.getSettled());
+        assertEquals(0, tree.getPrevious(990));
+        assertEquals(1_004, tree.getDistance(999));
+        graph.insertEdge(0, 999, 2);
+        assertEquals(1, tree.getSettled());
+        assertEquals(2, tree.getDistance(999));
+        graph.updateEdge(0, 1, 4);
+        assertEquals(989, tree.getSettled());
+        assertEquals(994, tree.getDistance(989));
+    }
+
+    @Test
+    void testGraphUpdatesInvalidateDerivedData() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.setCache(new ShortestPathCache(1 << 20));
+        graph.prepareHierarchy();
+        IncrementalShortestPathTree tracked = graph.track(graph.getVertex("Lyon"));
+        assertEquals(2.7, graph.distancesFrom("Lyon").getDistance(graph.getVertex("Narbonne").getIndex()), 1e-9);
+        graph.updateEdge(graph.getVertex("Lyon"), graph.getVertex("Montpellier"), 4);
+        int narbonne = graph.getVertex("Narbonne").getIndex();
+        assertEquals(tracked.getDistance(narbonne), graph.distancesFrom("Lyon").getDistance(narbonne));
+        assertEquals(5, tracked.getDistance(narbonne));
+        assertEquals(1, graph.getCache().stats().entries());
+        assertThrows(IllegalStateException.class,
+                () -> graph.shortestPath("Lyon", "Narbonne", QueryMode.CONTRACTION_HIERARCHY));
+        graph.removeEdge(graph.getVertex("Paris"), graph.getVertex("Toulouse"));
+        assertEquals(21, graph.getAdjacency().edgeCount());
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.removeEdge(graph.getVertex("Paris"), graph.getVertex("Toulouse")));
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.insertEdge(graph.getVertex("Paris"), graph.getVertex("Toulouse"), -1));
+    }
+
+    private static void assertMatchesRecomputation(CompactGraph current, IncrementalShortestPathTree tree) {
+        ShortestPathTree expected = RandomGraphs.load(current).distancesFrom(new Vertex(tree.getSource(), ""));
+        for (int v = 0; v < current.vertexCount(); v++) {
+            assertEquals(expected.getDistance(v), tree.getDistance(v));
+            int previous = tree.getPrevious(v);
+            if (previous < 0) {
+                assertTrue(v == tree.getSource() || !tree.isReachable(v));
+                continue;
+            }
+            double weight = Double.POSITIVE_INFINITY;
+            for (int e = current.edgesStart(previous); e < current.edgesEnd(previous); e++) {
+                if (current.target(e) == v) {
+                    weight = Math.min(weight, current.weight(e));
+                }
+            }
+            assertEquals(tree.getDistance(v), tree.getDistance(previous) + weight);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GraphParserTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testKeepsLineBasedSemantics() throws IOException {
+        String content = String.join("\r\n",
+                "Lyon",
+                " Saint-Étienne ",
+                "Paris",
+                "  \t",
+                "0, 1, 1.5",
+                "1,2,2.25,extra",
+                "2 , 0 , 3",
+                "",
+                "0, 3, 1.0",
+                "-1, 0, 1.0",
+                "0, 1",
+                "0, 1,",
+                "a, 1, 1.0",
+                "0, 2, 1e2",
+                "0, 2, +.5",
+                "+2, 1, Infinity",
+                "1, 0, 0x1p3",
+                "1, 2, 1.2.3",
+                "2, 2, 12345678901234567890",
+                "99999999999, 1, 1.0",
+                "1, 0, 0.1");
+        assertSameAsLineParser(content);
+        assertSameAsLineParser(content.replace("\r\n", "\n") + "\n");
+        assertSameAsLineParser(content.replace("\r\n", "\r"));
+    }
+
+    @Test
+    void testWithoutSeparator() throws IOException {
+        assertSameAsLineParser("Lyon\nParis\n0, 1, 1.0");
+        assertSameAsLineParser("");
+    }
+
+    @Test
+    void testParallelChunksMatchSequential() throws IOException {
+        Random random = new Random(3);
+        StringBuilder content = new StringBuilder();
+        int vertexCount = 1_000;
+        for (int v = 0; v < vertexCount; v++) {
+            content.append("City ").append(v).append('\n');
+        }
+        content.append('\n');
+        for (int e = 0; e < 600_000; e++) {
+            content.append(random.nextInt(vertexCount + 5)).append(", ")
+                    .append(random.nextInt(vertexCount)).append(", ")
+                    .append(random.nextInt(10_000) / 100.0).append(e % 3 == 0 ? "\r\n" : "\n");
+        }
+        Path file = directory.resolve("large.txt");
+        Files.writeString(file, content);
+        RandomGraphs.assertSameGraph(GraphParser.parse(file, false), GraphParser.parse(file, true));
+        RandomGraphs.assertSameGraph(parseLines(Files.readAllLines(file)), GraphParser.parse(file, true));
+    }
+
+    private void assertSameAsLineParser(String content) throws IOException {
+        Path file = directory.resolve("input.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        RandomGraphs.assertSameGraph(parseLines(Files.readAllLines(file)), GraphParser.parse(file));
+    }
+
+    private static CompactGraph parseLines(List<String> lines) {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        lines.stream()
+                .takeWhile(line -> !line.isBlank())
+                .forEach(builder::addVertex);
+        lines.stream()
+                .skip(builder.vertexCount() + 1)
+                .filter(line -> !line.isBlank())
+                .forEach(line -> {
+                    String[] params = line.split(",");
+                    if (params.length >= 3) {
+                        try {
+                            int source = Integer.parseInt(params[0].trim());
+                            int target = Integer.parseInt(params[1].trim());
+                            double weight = Double.parseDouble(params[2].trim());
+                            if (source >= 0 && target >= 0
+                                    && builder.vertexCount() > source && builder.vertexCount() > target) {
+                                builder.addEdge(source, target, weight);
+                            }
+                        } catch (NumberFormatException ignore) {}
+                    }
+                });
+        return builder.build();
+    }
+}
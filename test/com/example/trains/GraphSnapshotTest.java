@@ -0,0 +1,88 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GraphSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTrip() {
+        CompactGraph graph = RandomGraphs.random(2_000, 20_000, 17);
+        Path snapshot = directory.resolve("graph.bin");
+        GraphSnapshot.write(graph, snapshot);
+        CompactGraph read = GraphSnapshot.read(snapshot);
+        RandomGraphs.assertSameGraph(graph, read);
+        RandomGraphs.assertSameGraph(graph.reverse(), read.reverse());
+    }
+
+    @Test
+    void testCorruptSnapshotFallsBackToText() throws IOException {
+        Path source = directory.resolve("input.txt");
+        Files.copy(Path.of("input.txt"), source);
+        Path snapshot = directory.resolve("input.bin");
+        Graph graph = new Graph();
+        graph.readFrom(source.toString(), snapshot.toString());
+        assertTrue(GraphSnapshot.readIfFresh(snapshot, source).isPresent());
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 3] ^= 0x40;
+        Files.write(snapshot, bytes);
+        assertThrows(IllegalStateException.class, () -> GraphSnapshot.read(snapshot));
+        assertTrue(GraphSnapshot.readIfFresh(snapshot, source).isEmpty());
+
+        graph.readFrom(source.toString(), snapshot.toString());
+        RandomGraphs.assertSameGraph(GraphParser.parse(source), graph.getAdjacency());
+        assertTrue(GraphSnapshot.readIfFresh(snapshot, source).isPresent());
+    }
+
+    @Test
+    void testCorruptNameTableFallsBackToText() throws IOException {
+        Path source = directory.resolve("input.txt");
+        Files.copy(Path.of("input.txt"), source);
+        Path snapshot = directory.resolve("input.bin");
+        Graph graph = new Graph();
+        graph.readFrom(source.toString(), snapshot.toString());
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(56, 0x7ffffff0);
+        Files.write(snapshot, bytes);
+        assertThrows(IllegalStateException.class, () -> GraphSnapshot.read(snapshot));
+
+        graph.readFrom(source.toString(), snapshot.toString());
+        RandomGraphs.assertSameGraph(GraphParser.parse(source), graph.getAdjacency());
+        assertTrue(GraphSnapshot.readIfFresh(snapshot, source).isPresent());
+    }
+
+    @Test
+    void testCorruptHeaderIsRejected() throws IOException {
+        Path snapshot = directory.resolve("graph.bin");
+        GraphSnapshot.write(RandomGraphs.random(100, 400, 3), snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(8, 99);
+        Files.write(snapshot, bytes);
+        assertThrows(IllegalStateException.class, () -> GraphSnapshot.read(snapshot));
+    }
+
+    @Test
+    void testStaleSnapshotIsIgnored() throws IOException {
+        Path source = directory.resolve("input.txt");
+        Files.copy(Path.of("input.txt"), source);
+        Path snapshot = directory.resolve("input.bin");
+        GraphSnapshot.write(GraphParser.parse(source), snapshot, source);
+        Files.writeString(source, Files.readString(source) + "2, 1, 0.5\n");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 1_000));
+        assertTrue(GraphSnapshot.readIfFresh(snapshot, source).isEmpty());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.trains;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IndexedMinHeapTest {
+
+    @Test
+    void testDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        heap.insertOrDecrease(0, 5);
+        heap.insertOrDecrease(1, 3);
+        heap.insertOrDecrease(2, 4);
+        heap.insertOrDecrease(0, 1);
+        heap.insertOrDecrease(1, 9);
+        assertTrue(heap.contains(1));
+        assertEquals(1, heap.peekKey());
+        assertEquals(0, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(2, heap.poll());
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+    }
+
+    @Test
+    void testTiesPollSmallestIndexFirst() {
+        IndexedMinHeap heap = new IndexedMinHeap(6);
+        for (int index : new int[] {4, 2, 5, 0, 3}) {
+            heap.insertOrDecrease(index, 2);
+        }
+        heap.insertOrDecrease(1, 7);
+        heap.insertOrDecrease(1, 2);
+        for (int expected = 0; expected < 6; expected++) {
+            assertEquals(expected, heap.poll());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.trains;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IsochroneTest {
+
+    @Test
+    void testReachedSetMatchesFullSearch() {
+        CompactGraph adjacency = RandomGraphs.random(5_000, 12_000, 29);
+        Graph graph = RandomGraphs.load(adjacency);
+        Random random = new Random(29);
+        for (int query = 0; query < 60; query++) {
+            Vertex source = new Vertex(random.nextInt(adjacency.vertexCount()), "");
+            double maxCost = random.nextInt(12) * 0.5;
+            Isochrone isochrone = graph.isochrone(source, maxCost);
+            ShortestPathTree tree = graph.distancesFrom(source);
+            if (query % 3 == 0) {
+                graph.isochrone(new Vertex(random.nextInt(adjacency.vertexCount()), ""), 2 * maxCost);
+            }
+
+            int expected = 0;
+            for (int v = 0; v < adjacency.vertexCount(); v++) {
+                if (tree.getDistance(v) <= maxCost) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, isochrone.size());
+            assertEquals(source.getIndex(), isochrone.getVertex(0));
+            assertEquals(-1, isochrone.getPrevious(0));
+            for (int i = 0; i < isochrone.size(); i++) {
+                int vertex = isochrone.getVertex(i);
+                assertEquals(tree.getDistance(vertex), isochrone.getDistance(i));
+                assertTrue(isochrone.getDistance(i) <= maxCost);
+                if (i > 0) {
+                    assertTrue(isochrone.getDistance(i - 1) <= isochrone.getDistance(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSearchesOfAnyKindShareOneContext() {
+        CompactGraph adjacency = RandomGraphs.random(2_000, 6_000, 31);
+        SearchContext shared = new SearchContext(adjacency.vertexCount());
+        Random random = new Random(31);
+        for (int query = 0; query < 40; query++) {
+            int source = random.nextInt(adjacency.vertexCount());
+            SearchStrategy strategy = SearchStrategy.values()[query % SearchStrategy.values().length];
+            SearchContext fresh = new SearchContext(adjacency.vertexCount());
+            fresh.search(adjacency, source, strategy);
+            shared.search(adjacency, source, strategy);
+            for (int v = 0; v < adjacency.vertexCount(); v++) {
+                assertEquals(fresh.distances[v], shared.distances[v]);
+            }
+
+            double maxCost = random.nextInt(8) * 0.5;
+            Isochrone expected = new SearchContext(adjacency.vertexCount()).searchWithin(adjacency, source, maxCost);
+            Isochrone actual = shared.searchWithin(adjacency, source, maxCost);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getVertex(i), actual.getVertex(i));
+                assertEquals(expected.getDistance(i), actual.getDistance(i));
+            }
+        }
+    }
+
+    @Test
+    void testCutoffOnSmallGraph() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        Isochrone isochrone = graph.isochrone("lyon", 1.5);
+        assertEquals(3, isochrone.size());
+        assertEquals("Lyon", isochrone.getGraph().name(isochrone.getVertex(0)));
+        assertEquals("Valence", isochrone.getGraph().name(isochrone.getVertex(1)));
+        assertEquals(0.6, isochrone.getDistance(1));
+        assertThrows(IllegalArgumentException.class, () -> graph.isochrone("Lyon", Double.NaN));
+    }
+}
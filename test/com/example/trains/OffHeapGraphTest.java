@@ -0,0 +1,88 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapGraphTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testBackendsAgreeWithGraph() {
+        CompactGraph adjacency = RandomGraphs.random(3_000, 15_000, 23);
+        Graph graph = RandomGraphs.load(adjacency);
+        Path snapshot = this.directory.resolve("graph.bin");
+        GraphSnapshot.write(adjacency, snapshot);
+        try (OffHeapGraph copied = OffHeapGraph.copyOf(adjacency); OffHeapGraph mapped = OffHeapGraph.map(snapshot)) {
+            assertEquals(adjacency.edgeCount(), mapped.edgeCount());
+            for (ShortestPaths backend : new ShortestPaths[] {copied, mapped}) {
+                for (String source : new String[] {"V0", "v1500", "V2999"}) {
+                    ShortestPathTree expected = graph.distancesFrom(source);
+                    ShortestPathTree actual = backend.distancesFrom(source);
+                    for (int v = 0; v < adjacency.vertexCount(); v++) {
+                        assertEquals(expected.getDistance(v), actual.getDistance(v));
+                        assertEquals(expected.getPrevious(v), actual.getPrevious(v));
+                    }
+                    assertEquals(adjacency.name(1500), actual.getGraph().name(1500));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testReadFromParsesOrMapsTheSource() throws IOException {
+        Path source = this.directory.resolve("input.txt");
+        Files.copy(Path.of("input.txt"), source);
+        Path snapshot = this.directory.resolve("input.bin");
+        CompactGraph adjacency = GraphParser.parse(source);
+        GraphSnapshot.write(adjacency, snapshot, source);
+        try (OffHeapGraph parsed = OffHeapGraph.readFrom(source);
+             OffHeapGraph mapped = OffHeapGraph.readFrom(source, snapshot)) {
+            assertAgreeWith(adjacency, parsed);
+            assertAgreeWith(adjacency, mapped);
+        }
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(56, 1_000);
+        Files.write(snapshot, bytes);
+        try (OffHeapGraph parsed = OffHeapGraph.readFrom(source, snapshot)) {
+            assertAgreeWith(adjacency, parsed);
+        }
+        Files.writeString(source, Files.readString(source) + "2, 1, 0.5\n");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 1_000));
+        try (OffHeapGraph reparsed = OffHeapGraph.readFrom(source, snapshot)) {
+            assertAgreeWith(GraphParser.parse(source), reparsed);
+        }
+    }
+
+    private static void assertAgreeWith(CompactGraph adjacency, OffHeapGraph backend) {
+        Graph graph = RandomGraphs.load(adjacency);
+        assertEquals(adjacency.edgeCount(), backend.edgeCount());
+        for (int source = 0; source < adjacency.vertexCount(); source++) {
+            ShortestPathTree expected = graph.distancesFrom(adjacency.name(source));
+            ShortestPathTree actual = backend.distancesFrom(adjacency.name(source));
+            for (int v = 0; v < adjacency.vertexCount(); v++) {
+                assertEquals(expected.getDistance(v), actual.getDistance(v));
+                assertEquals(expected.getPrevious(v), actual.getPrevious(v));
+            }
+        }
+    }
+
+    @Test
+    void testClosedGraphRejectsQueries() {
+        OffHeapGraph graph = OffHeapGraph.copyOf(RandomGraphs.random(10, 20, 1));
+        graph.close();
+        assertThrows(IllegalStateException.class, () -> graph.distancesFrom("V0"));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapGraph.copyOf(RandomGraphs.random(10, 20, 1))
+                .distancesFrom("Nowhere"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.trains;
+
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryMetricsTest {
+
+    @Test
+    void testSearchCountersAreRecorded() {
+        Graph graph = new Graph();
+        MetricsRecorder recorder = new MetricsRecorder();
+        graph.setMetrics(recorder);
+        graph.readFrom("input.txt");
+        graph.distancesFrom("Lyon");
+        graph.distancesFrom("Narbonne");
+        assertEquals(1, recorder.loadLatency().count());
+        assertEquals(2, recorder.searches());
+        assertEquals(18, recorder.settledVertices());
+        assertEquals(44, recorder.relaxedEdges());
+        assertTrue(recorder.improvedEdges() >= 16);
+        assertEquals(2 + recorder.improvedEdges() + recorder.settledVertices(), recorder.queueOperations());
+        assertEquals(2, recorder.searchLatency().count());
+        assertTrue(recorder.searchLatency().valueAtPercentile(50) > 0);
+    }
+
+    @Test
+    void testHistogramPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+        assertEquals(1_000, histogram.count());
+        for (double percentile : new double[] {1, 50, 90, 99, 100}) {
+            long exact = (long) (percentile * 10) * 1_000;
+            long reported = histogram.valueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * 1.125, percentile + " -> " + reported);
+        }
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(99));
+    }
+
+    @Test
+    void testFlightRecorderEvents(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("trains.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.trains.Search");
+            recording.enable("com.example.trains.GraphLoad");
+            recording.start();
+            Graph graph = new Graph();
+            graph.readFrom("input.txt");
+            graph.distancesFrom("Lyon");
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent load = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.trains.GraphLoad"))
+                .findFirst().orElseThrow();
+        assertEquals(22, load.getInt("edgeCount"));
+        RecordedEvent search = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.trains.Search"))
+                .findFirst().orElseThrow();
+        assertEquals(0, search.getInt("source"));
+        assertEquals(9, search.getInt("settledVertices"));
+        assertEquals(22, search.getLong("relaxedEdges"));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.trains;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class QueryServerTest {
+
+    private static final String[] CITIES = {
+            "Lyon", "Paris", "Grenoble", "Dijon", "Valence", "Montpellier", "Bordeaux", "Toulouse", "Narbonne"
+    };
+
+    @Test
+    void testAnswersArePrintedInQueryOrder() throws Exception {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            String source = CITIES[i % CITIES.length];
+            String target = CITIES[(i * 7) % CITIES.length];
+            if (i % 3 == 0) {
+                input.append(source).append(", ").append(target).append('\n');
+                expected.append(expectedRoute(graph, source, target));
+            } else {
+                input.append(source).append('\n');
+                expected.append(expectedDistances(graph, source));
+            }
+        }
+        StringWriter output = new StringWriter();
+        try (QueryServer server = new QueryServer(graph, 4)) {
+            server.serve(new StringReader(input.toString()), output);
+        }
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    void testInvalidQueriesAreReportedInline() throws Exception {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        StringWriter output = new StringWriter();
+        try (QueryServer server = new QueryServer(graph, 2)) {
+            server.serve(new StringReader("Atlantis\n\nLyon, Paris, Dijon\n"), output);
+        }
+        assertEquals("""
+                Calculating distances from Atlantis.
+                Error: No such vertex with name Atlantis
+
+                Error: Expected one or two cities, got Lyon, Paris, Dijon
+
+                """, output.toString());
+    }
+
+    @Test
+    void testFailingQueryDoesNotAbortTheBatch() throws Exception {
+        Graph graph = new Graph() {
+            @Override
+            public ShortestPathTree distancesFrom(Vertex start) {
+                if (start.getName().equals("Dijon")) {
+                    throw new IllegalStateException("Broken graph");
+                }
+                return super.distancesFrom(start);
+            }
+        };
+        graph.readFrom("input.txt");
+        StringWriter output = new StringWriter();
+        try (QueryServer server = new QueryServer(graph, 2)) {
+            server.serve(new StringReader("Dijon\nLyon\n"), output);
+        }
+        assertEquals("Calculating distances from Dijon.\nError: Broken graph\n\n" + expectedDistances(graph, "Lyon"),
+                output.toString());
+    }
+
+    @Test
+    void testOffHeapBackendAnswersDistanceQueries() throws Exception {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        StringWriter output = new StringWriter();
+        try (OffHeapGraph offHeap = OffHeapGraph.readFrom(Path.of("input.txt"));
+             QueryServer server = new QueryServer(offHeap, 2)) {
+            server.serve(new StringReader("Lyon\nLyon, Paris\n"), output);
+        }
+        assertEquals(expectedDistances(graph, "Lyon")
+                + "Calculating route from Lyon to Paris.\nError: Route queries need the heap backend\n\n",
+                output.toString());
+    }
+
+    @Test
+    void testSlowAnswerDoesNotStopReading() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch fastAnswered = new CountDownLatch(1);
+        Graph graph = new Graph() {
+            @Override
+            public ShortestPathTree distancesFrom(Vertex start) {
+                if (start.getName().equals("Dijon")) {
+                    slowStarted.countDown();
+                    try {
+                        if (!fastAnswered.await(5, TimeUnit.SECONDS)) {
+                            throw new IllegalStateException("Lyon was never read");
+                        }
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                } else {
+                    fastAnswered.countDown();
+                }
+                return super.distancesFrom(start);
+            }
+        };
+        graph.readFrom("input.txt");
+        PipedWriter client = new PipedWriter();
+        PipedReader input = new PipedReader(client);
+        StringWriter output = new StringWriter();
+        try (QueryServer server = new QueryServer(graph, 2)) {
+            Thread serving = Thread.ofPlatform().start(() -> {
+                try {
+                    server.serve(input, output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            client.write("Dijon\n");
+            client.flush();
+            slowStarted.await();
+            client.write("Lyon\n");
+            client.close();
+            serving.join();
+        }
+        assertEquals(expectedDistances(graph, "Dijon") + expectedDistances(graph, "Lyon"), output.toString());
+    }
+
+    @Test
+    void testClosingTheServerStopsListening() throws Exception {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        QueryServer server = new QueryServer(graph, 2);
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        Thread listening = Thread.ofPlatform().start(() -> {
+            try {
+                server.listen(port);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        String answer = null;
+        for (int attempt = 0; answer == null && attempt < 100; attempt++) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.getOutputStream().write("Lyon\n".getBytes(StandardCharsets.UTF_8));
+                socket.shutdownOutput();
+                answer = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            } catch (ConnectException e) {
+                Thread.sleep(20);
+            }
+        }
+        assertEquals(expectedDistances(graph, "Lyon"), answer);
+        server.close();
+        listening.join(5_000);
+        assertFalse(listening.isAlive());
+    }
+
+    private static String expectedDistances(Graph graph, String source) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        output.printf("Calculating distances from %s.\n", source);
+        graph.printDistances(graph.distancesFrom(source), output);
+        return buffer.toString(StandardCharsets.UTF_8) + "\n";
+    }
+
+    private static String expectedRoute(Graph graph, String source, String target) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        output.printf("Calculating route from %s to %s.\n", source, target);
+        graph.printRoute(graph.shortestPath(source, target, QueryMode.BIDIRECTIONAL), output);
+        return buffer.toString(StandardCharsets.UTF_8) + "\n";
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trains;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class RandomGraphs {
+
+    private RandomGraphs() {
+    }
+
+    static CompactGraph random(int vertexCount, int edgeCount, long seed) {
+        Random random = new Random(seed);
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < vertexCount; v++) {
+            builder.addVertex("V" + v);
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            builder.addEdge(random.nextInt(vertexCount), random.nextInt(vertexCount), random.nextInt(20) * 0.25);
+        }
+        return builder.build();
+    }
+
+    static Graph load(CompactGraph adjacency) {
+        Graph graph = new Graph();
+        graph.load(adjacency);
+        return graph;
+    }
+
+    static CompactGraph withWeight(CompactGraph graph, int edge, double weight) {
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            builder.addVertex(graph.name(v));
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int e = graph.edgesStart(v); e < graph.edgesEnd(v); e++) {
+                builder.addEdge(v, graph.target(e), e == edge ? weight : graph.weight(e));
+            }
+        }
+        return builder.build();
+    }
+
+    static double cheapest(CompactGraph graph, int source, int target) {
+        double weight = Double.POSITIVE_INFINITY;
+        for (int e = graph.edgesStart(source); e < graph.edgesEnd(source); e++) {
+            if (graph.target(e) == target) {
+                weight = Math.min(weight, graph.weight(e));
+            }
+        }
+        return weight;
+    }
+
+    static void assertSameGraph(CompactGraph expected, CompactGraph actual) {
+        assertEquals(expected.vertexCount(), actual.vertexCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int v = 0; v < expected.vertexCount(); v++) {
+            assertEquals(expected.name(v), actual.name(v));
+            assertEquals(expected.edgesStart(v), actual.edgesStart(v));
+        }
+        for (int e = 0; e < expected.edgeCount(); e++) {
+            assertEquals(expected.target(e), actual.target(e));
+            assertEquals(expected.weight(e), actual.weight(e));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.trains;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResultWriterTest {
+
+    @Test
+    void testHundredthsMatchFormatter() {
+        Random random = new Random(5);
+        byte[] target = new byte[320];
+        double[] special = {
+                0, -0.0, 1.005, 2.675, 0.125, 0.005, 1e-20, 999.995, 1e15, 123456789.125, Double.MAX_VALUE,
+                Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN
+        };
+        for (double value : special) {
+            assertFormatted(value, target);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            assertFormatted(random.nextInt(2_000_000) * 0.005, target);
+            assertFormatted(random.nextInt(100_000) / 1000.0, target);
+            assertFormatted((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(18)), target);
+        }
+    }
+
+    @Test
+    void testDistancesMatchPrintfLines() {
+        CompactGraph graph = RandomGraphs.random(2_000, 5_000, 3);
+        Graph loaded = RandomGraphs.load(graph);
+        for (int source : new int[] {0, 17, 1_999}) {
+            ShortestPathTree tree = loaded.distancesFrom(new Vertex(source, ""));
+            String[] expected = legacyDistances(graph, tree).split(System.lineSeparator());
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            new ResultWriter().writeDistances(tree, stream);
+            String[] written = stream.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+            assertEquals(graph.name(source) + ", 0.00", written[0]);
+            Arrays.sort(expected);
+            Arrays.sort(written);
+            assertArrayEquals(expected, written);
+        }
+    }
+
+    @Test
+    void testWriterIsReusableAcrossTargets() {
+        CompactGraph graph = RandomGraphs.random(500, 2_000, 9);
+        Graph loaded = RandomGraphs.load(graph);
+        ResultWriter writer = new ResultWriter(0);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        ShortestPathTree tree = loaded.distancesFrom(new Vertex(3, ""));
+        writer.writeDistances(tree, first);
+        writer.writeDistances(tree, Channels.newChannel(second));
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        ByteArrayOutputStream edges = new ByteArrayOutputStream();
+        writer.writeEdges(graph, edges);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(expected, true, StandardCharsets.UTF_8);
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int e = graph.edgesStart(v); e < graph.edgesEnd(v); e++) {
+                output.printf("%s, %s%n", graph.name(v), graph.name(graph.target(e)));
+            }
+        }
+        assertArrayEquals(expected.toByteArray(), edges.toByteArray());
+    }
+
+    @Test
+    void testRoutesMatchPrintfLines() {
+        CompactGraph graph = RandomGraphs.random(500, 2_000, 11);
+        Graph loaded = RandomGraphs.load(graph);
+        ResultWriter writer = new ResultWriter(0);
+        for (int target : new int[] {0, 42, 499}) {
+            Route route = loaded.shortestPath(new Vertex(7, ""), new Vertex(target, ""), QueryMode.UNIDIRECTIONAL);
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            PrintStream output = new PrintStream(expected, true, StandardCharsets.UTF_8);
+            int[] path = route.path();
+            output.printf("%s, ", graph.name(route.target()));
+            for (int i = path.length - 2; i >= 0; i--) {
+                output.printf("%s, ", graph.name(path[i]));
+            }
+            output.printf("%.2f%n", route.cost());
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            writer.writeRoute(graph, route, written);
+            assertArrayEquals(expected.toByteArray(), written.toByteArray());
+        }
+    }
+
+    private static void assertFormatted(double value, byte[] target) {
+        int end = OutputBuffer.formatFixed(value, 2, target, 0);
+        assertEquals(String.format(Locale.ROOT, "%.2f", value), new String(target, 0, end, StandardCharsets.US_ASCII));
+    }
+
+    private static String legacyDistances(CompactGraph graph, ShortestPathTree tree) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        for (int vertex = 0; vertex < graph.vertexCount(); vertex++) {
+            for (int current = vertex; current >= 0; current = tree.getPrevious(current)) {
+                output.printf("%s, ", graph.name(current));
+            }
+            output.printf(Locale.ROOT, "%.2f%n", tree.getDistance(vertex));
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
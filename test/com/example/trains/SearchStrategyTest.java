@@ -0,0 +1,26 @@
+package com.example.trains;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SearchStrategyTest {
+
+    @Test
+    void testBinaryHeapMatchesLinearScan() {
+        for (long seed = 1; seed <= 20; seed++) {
+            CompactGraph adjacency = RandomGraphs.random(300, 300 * (int) (1 + seed % 4), seed);
+            Graph graph = RandomGraphs.load(adjacency);
+            for (int source : new int[] {0, 150, 299}) {
+                graph.setStrategy(SearchStrategy.LINEAR_SCAN);
+                ShortestPathTree expected = graph.distancesFrom(new Vertex(source, ""));
+                graph.setStrategy(SearchStrategy.BINARY_HEAP);
+                ShortestPathTree actual = graph.distancesFrom(new Vertex(source, ""));
+                for (int v = 0; v < adjacency.vertexCount(); v++) {
+                    assertEquals(expected.getDistance(v), actual.getDistance(v));
+                    assertEquals(expected.getPrevious(v), actual.getPrevious(v));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.trains;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShortestPathCacheTest {
+
+    private static final long TREE_BYTES = 9 * (Double.BYTES + Integer.BYTES);
+
+    @Test
+    void testRepeatedOriginsAreServedFromCache() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.setCache(new ShortestPathCache(1 << 20));
+        ShortestPathTree first = graph.distancesFrom("Lyon");
+        assertSame(first, graph.distancesFrom("lyon"));
+        assertSame(first, graph.distancesFrom("LYON"));
+        graph.distancesFrom("Paris");
+        ShortestPathCache.Stats stats = graph.getCache().stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.entries());
+    }
+
+    @Test
+    void testLeastRecentlyUsedTreeIsEvicted() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.setCache(new ShortestPathCache(2 * TREE_BYTES));
+        ShortestPathTree lyon = graph.distancesFrom("Lyon");
+        graph.distancesFrom("Paris");
+        graph.distancesFrom("Lyon");
+        graph.distancesFrom("Grenoble");
+        assertSame(lyon, graph.distancesFrom("Lyon"));
+        ShortestPathCache.Stats stats = graph.getCache().stats();
+        assertEquals(1, stats.evictions());
+        assertTrue(stats.bytes() <= 2 * TREE_BYTES);
+        graph.distancesFrom("Paris");
+        assertEquals(4, graph.getCache().stats().misses());
+    }
+
+    @Test
+    void testReloadInvalidatesCache() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.setCache(new ShortestPathCache(1 << 20));
+        ShortestPathTree before = graph.distancesFrom("Lyon");
+        graph.readFrom("input.txt");
+        assertEquals(0, graph.getCache().stats().entries());
+        assertNotSame(before, graph.distancesFrom("Lyon"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.trains;
+
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShortestPathTest {
+
+    private static final int PAIRS = 300;
+
+    @Test
+    void testUnidirectionalMatchesTreePath() {
+        Graph graph = RandomGraphs.load(RandomGraphs.random(400, 1_600, 7));
+        Random random = new Random(7);
+        for (int i = 0; i < PAIRS; i++) {
+            Vertex source = randomVertex(graph, random);
+            Vertex target = randomVertex(graph, random);
+            ShortestPathTree tree = graph.distancesFrom(source);
+            Route route = graph.shortestPath(source, target, QueryMode.UNIDIRECTIONAL);
+            assertEquals(tree.getDistance(target.getIndex()), route.cost());
+            int[] path = route.path();
+            for (int k = path.length - 1; k > 0; k--) {
+                assertEquals(tree.getPrevious(path[k]), path[k - 1]);
+            }
+        }
+    }
+
+    @Test
+    void testBidirectionalMatchesDistances() {
+        Graph graph = RandomGraphs.load(RandomGraphs.random(400, 1_600, 11));
+        Random random = new Random(11);
+        for (int i = 0; i < PAIRS; i++) {
+            Vertex source = randomVertex(graph, random);
+            Vertex target = randomVertex(graph, random);
+            ShortestPathTree tree = graph.distancesFrom(source);
+            Route route = graph.shortestPath(source, target, QueryMode.BIDIRECTIONAL);
+            assertEquals(tree.getDistance(target.getIndex()), route.cost());
+            assertEquals(tree.isReachable(target.getIndex()), route.isReachable());
+            assertValidPath(graph.getAdjacency(), route);
+        }
+    }
+
+    @Test
+    void testAltMatchesDistancesAndSettlesLess(@TempDir Path directory) {
+        Graph graph = RandomGraphs.load(RandomGraphs.random(600, 2_400, 13));
+        Path file = directory.resolve("landmarks.bin");
+        graph.prepareLandmarks(8).writeTo(file);
+        graph.setLandmarks(Landmarks.readFrom(file, graph.getAdjacency()));
+        Random random = new Random(13);
+        long altSettled = 0;
+        long dijkstraSettled = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            Vertex source = randomVertex(graph, random);
+            Vertex target = randomVertex(graph, random);
+            Route expected = graph.shortestPath(source, target, QueryMode.UNIDIRECTIONAL);
+            Route route = graph.shortestPath(source, target, QueryMode.ALT);
+            assertEquals(expected.cost(), route.cost());
+            assertValidPath(graph.getAdjacency(), route);
+            altSettled += route.settled();
+            dijkstraSettled += expected.settled();
+        }
+        assertTrue(altSettled < dijkstraSettled, "ALT settled %d, Dijkstra %d".formatted(altSettled, dijkstraSettled));
+    }
+
+    @Test
+    void testLandmarksOfEditedWeightsAreRejected(@TempDir Path directory) {
+        CompactGraph adjacency = RandomGraphs.random(200, 800, 5);
+        CompactGraph edited = RandomGraphs.withWeight(adjacency, 0, adjacency.weight(0) + 1);
+        Path file = directory.resolve("landmarks.bin");
+        Landmarks landmarks = Landmarks.select(adjacency, 4);
+        landmarks.writeTo(file);
+        assertTrue(Landmarks.readFrom(file, adjacency).matches(adjacency));
+        assertFalse(landmarks.matches(edited));
+        assertThrows(IllegalStateException.class, () -> Landmarks.readFrom(file, edited));
+        assertThrows(IllegalArgumentException.class, () -> RandomGraphs.load(edited).setLandmarks(landmarks));
+    }
+
+    @Test
+    void testRouteOnInput() {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        graph.prepareLandmarks(3);
+        graph.prepareHierarchy();
+        for (QueryMode mode : QueryMode.values()) {
+            Route route = graph.shortestPath("Lyon", "Toulouse", mode);
+            assertEquals(4.45, route.cost(), 1e-9);
+            assertEquals(4, route.path().length);
+            assertEquals("Narbonne", graph.getAdjacency().name(route.path()[2]));
+        }
+    }
+
+    static Vertex randomVertex(Graph graph, Random random) {
+        CompactGraph adjacency = graph.getAdjacency();
+        return graph.getVertex(adjacency.name(random.nextInt(adjacency.vertexCount())));
+    }
+
+    static void assertValidPath(CompactGraph graph, Route route) {
+        int[] path = route.path();
+        if (!route.isReachable()) {
+            return;
+        }
+        assertEquals(route.source(), path[0]);
+        assertEquals(route.target(), path[path.length - 1]);
+        double cost = 0;
+        for (int k = 1; k < path.length; k++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = graph.edgesStart(path[k - 1]); e < graph.edgesEnd(path[k - 1]); e++) {
+                if (graph.target(e) == path[k]) {
+                    best = Math.min(best, graph.weight(e));
+                }
+            }
+            assertFalse(Double.isInfinite(best), "No edge %d -> %d".formatted(path[k - 1], path[k]));
+            cost += best;
+        }
+        assertTrue(Math.abs(cost - route.cost()) < 1e-9, "Path cost %f differs from %f".formatted(cost, route.cost()));
+    }
+}
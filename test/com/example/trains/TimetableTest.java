@@ -0,0 +1,195 @@
+package com.example.trains;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class TimetableTest {
+    private static final int LYON = 0;
+    private static final int PARIS = 1;
+    private static final int DIJON = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEarliestArrivalFromFile() throws IOException {
+        Graph graph = new Graph();
+        graph.readFrom("input.txt");
+        Path file = this.directory.resolve("timetable.txt");
+        Files.writeString(file, """
+                0, 3, 08:00, 09:40
+                3, 1, 09:50, 11:30
+                0, 1, 08:30, 10:30
+                0, 1, 07:00, 09:00
+                3, 1, oops, 12:00
+                1, 3, 23:30, 25:10
+                """);
+        Timetable timetable = graph.readTimetable(file.toString());
+        assertEquals(5, timetable.connectionCount());
+
+        Timetable.Journey journey = timetable.earliestArrival(LYON, PARIS, 7 * 60 + 30);
+        assertEquals(10 * 60 + 30, journey.arrival());
+        assertEquals(1, journey.connections().length);
+        assertEquals(8 * 60 + 30, timetable.departure(journey.connections()[0]));
+
+        Timetable.Journey overnight = timetable.earliestArrival(PARIS, DIJON, 12 * 60);
+        assertEquals(25 * 60 + 10, overnight.arrival());
+        assertFalse(timetable.earliestArrival(PARIS, LYON, 0).isReachable());
+        assertEquals("Dijon", timetable.getStations().name(DIJON));
+    }
+
+    @Test
+    void testProfileMatchesEarliestArrivalAtEveryDeparture() {
+        Random random = new Random(3);
+        int stations = 40;
+        CompactGraph network = RandomGraphs.random(stations, 0, 3);
+        Timetable.Builder builder = Timetable.builder(network);
+        for (int c = 0; c < 3_000; c++) {
+            int departure = random.nextInt(24 * 60);
+            builder.addConnection(random.nextInt(stations), random.nextInt(stations), departure,
+                    departure + random.nextInt(120));
+        }
+        Timetable timetable = builder.build();
+        for (int c = 1; c < timetable.connectionCount(); c++) {
+            assertFalse(timetable.departure(c) < timetable.departure(c - 1));
+        }
+        int from = 6 * 60;
+        int to = 10 * 60;
+        for (int source = 0; source < 5; source++) {
+            int[] arrivals = timetable.earliestArrivals(source, from);
+            assertArrayEquals(relaxUntilStable(timetable, source, from), arrivals);
+            for (int target = 5; target < 10; target++) {
+                Timetable.Profile profile = timetable.profile(source, target, from, to);
+                for (int time = from; time <= to; time++) {
+                    Timetable.Journey journey = timetable.earliestArrival(source, target, time);
+                    assertEquals(journey.arrival(), evaluate(profile, time, to, timetable, source, target));
+                    assertValid(timetable, journey, time);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testJourneysAfterTheWindowDoNotPruneOnesInside() {
+        Timetable timetable = Timetable.builder(RandomGraphs.random(4, 0, 1))
+                .addConnection(3, 1, 55, 106)
+                .addConnection(1, 0, 126, 168)
+                .addConnection(3, 0, 98, 112)
+                .build();
+        Timetable.Profile profile = timetable.profile(3, 0, 16, 62);
+        assertArrayEquals(new int[] {55}, profile.departures());
+        assertArrayEquals(new int[] {168}, profile.arrivals());
+    }
+
+    @Test
+    void testProfileMatchesBruteForce() {
+        Random random = new Random(19);
+        for (int round = 0; round < 50; round++) {
+            int stations = 2 + random.nextInt(6);
+            Timetable.Builder builder = Timetable.builder(RandomGraphs.random(stations, 0, round));
+            for (int c = 0; c < 5 + random.nextInt(40); c++) {
+                int departure = random.nextInt(300);
+                builder.addConnection(random.nextInt(stations), random.nextInt(stations), departure,
+                        departure + random.nextInt(60));
+            }
+            Timetable timetable = builder.build();
+            int from = random.nextInt(200);
+            int to = from + random.nextInt(100);
+            for (int source = 0; source < stations; source++) {
+                for (int target = 0; target < stations; target++) {
+                    if (source != target) {
+                        Timetable.Profile profile = timetable.profile(source, target, from, to);
+                        int[][] expected = bruteForceProfile(timetable, source, target, from, to);
+                        assertArrayEquals(expected[0], profile.departures());
+                        assertArrayEquals(expected[1], profile.arrivals());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes every connection leaving {@code source} in the window as the first leg of a journey, finishes it as early
+     * as possible and keeps the departures that no later one beats.
+     */
+    private static int[][] bruteForceProfile(Timetable timetable, int source, int target, int from, int to) {
+        int[] best = new int[to - from + 1];
+        Arrays.fill(best, Timetable.UNREACHABLE);
+        for (int c = 0; c < timetable.connectionCount(); c++) {
+            int departure = timetable.departure(c);
+            if (timetable.departureStop(c) == source && departure >= from && departure <= to) {
+                int arrival = relaxUntilStable(timetable, timetable.arrivalStop(c), timetable.arrival(c))[target];
+                best[departure - from] = Math.min(best[departure - from], arrival);
+            }
+        }
+        IntList departures = new IntList();
+        IntList arrivals = new IntList();
+        int later = Timetable.UNREACHABLE;
+        for (int time = to; time >= from; time--) {
+            if (best[time - from] < later) {
+                later = best[time - from];
+                departures.add(time);
+                arrivals.add(later);
+            }
+        }
+        int[][] profile = new int[2][departures.size()];
+        for (int i = 0; i < departures.size(); i++) {
+            profile[0][i] = departures.get(departures.size() - 1 - i);
+            profile[1][i] = arrivals.get(departures.size() - 1 - i);
+        }
+        return profile;
+    }
+
+    private static int evaluate(Timetable.Profile profile, int time, int to, Timetable timetable, int source,
+                                int target) {
+        // Journeys leaving after the window are not part of the profile.
+        int arrival = timetable.earliestArrival(source, target, to + 1).arrival();
+        for (int i = 0; i < profile.size(); i++) {
+            if (profile.departures()[i] >= time) {
+                return Math.min(profile.arrivals()[i], arrival);
+            }
+        }
+        return arrival;
+    }
+
+    private static int[] relaxUntilStable(Timetable timetable, int source, int time) {
+        int[] arrivals = new int[timetable.getStations().vertexCount()];
+        Arrays.fill(arrivals, Timetable.UNREACHABLE);
+        arrivals[source] = time;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int c = 0; c < timetable.connectionCount(); c++) {
+                if (timetable.departure(c) >= arrivals[timetable.departureStop(c)]
+                        && timetable.arrival(c) < arrivals[timetable.arrivalStop(c)]) {
+                    arrivals[timetable.arrivalStop(c)] = timetable.arrival(c);
+                    changed = true;
+                }
+            }
+        }
+        return arrivals;
+    }
+
+    private static void assertValid(Timetable timetable, Timetable.Journey journey, int time) {
+        int stop = journey.source();
+        for (int c : journey.connections()) {
+            assertEquals(stop, timetable.departureStop(c));
+            assertFalse(timetable.departure(c) < time);
+            stop = timetable.arrivalStop(c);
+            time = timetable.arrival(c);
+        }
+        if (journey.isReachable()) {
+            assertEquals(journey.target(), stop);
+            assertEquals(journey.arrival(), time);
+        }
+    }
+}
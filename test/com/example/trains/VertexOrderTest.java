@@ -0,0 +1,97 @@
+package com.example.trains;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VertexOrderTest {
+
+    @Test
+    void testRenumberedGraphKeepsEdgesAndNames() {
+        CompactGraph graph = RandomGraphs.random(500, 3_000, 31);
+        VertexOrder order = VertexOrder.reverseCuthillMcKee(graph);
+        assertEquals(graph.edgeCount(), order.graph.edgeCount());
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int internal = order.toInternal[v];
+            assertEquals(v, order.toOriginal[internal]);
+            assertEquals(graph.name(v), order.graph.name(internal));
+            assertEquals(graph.edgesEnd(v) - graph.edgesStart(v),
+                    order.graph.edgesEnd(internal) - order.graph.edgesStart(internal));
+            for (int e = graph.edgesStart(v), i = order.graph.edgesStart(internal); e < graph.edgesEnd(v); e++, i++) {
+                assertEquals(order.toInternal[graph.target(e)], order.graph.target(i));
+                assertEquals(graph.weight(e), order.graph.weight(i));
+            }
+        }
+        assertEquals(graph.reverse().edgeCount(), order.graph.reverse().edgeCount());
+    }
+
+    @Test
+    void testReorderingShrinksTheBandwidthOfAShuffledGrid() {
+        int side = 60;
+        CompactGraph.Builder builder = CompactGraph.builder();
+        for (int v = 0; v < side * side; v++) {
+            builder.addVertex("S" + v);
+        }
+        for (int v = 0; v < side * side; v++) {
+            if (v % side + 1 < side) {
+                builder.addEdge(v, v + 1, 1).addEdge(v + 1, v, 1);
+            }
+            if (v + side < side * side) {
+                builder.addEdge(v, v + side, 1).addEdge(v + side, v, 1);
+            }
+        }
+        int[] shuffle = new int[side * side];
+        for (int v = 0; v < shuffle.length; v++) {
+            shuffle[v] = v;
+        }
+        Random random = new Random(31);
+        for (int v = shuffle.length - 1; v > 0; v--) {
+            int other = random.nextInt(v + 1);
+            int swap = shuffle[v];
+            shuffle[v] = shuffle[other];
+            shuffle[other] = swap;
+        }
+        CompactGraph shuffled = VertexOrder.of(builder.build(), shuffle).graph;
+        assertTrue(bandwidth(shuffled) > side * side / 2);
+        assertTrue(bandwidth(VertexOrder.reverseCuthillMcKee(shuffled).graph) <= 2 * side);
+    }
+
+    @Test
+    void testReorderedQueriesUseOriginalIndices() {
+        CompactGraph adjacency = RandomGraphs.random(4_000, 16_000, 37);
+        Graph plain = RandomGraphs.load(adjacency);
+        Graph reordered = new Graph();
+        reordered.setReordering(true);
+        reordered.load(adjacency);
+        for (String source : new String[] {"V0", "V17", "V3999"}) {
+            ShortestPathTree expected = plain.distancesFrom(source);
+            ShortestPathTree actual = reordered.distancesFrom(source);
+            assertEquals(expected.getSource(), actual.getSource());
+            for (int v = 0; v < adjacency.vertexCount(); v++) {
+                assertEquals(expected.getDistance(v), actual.getDistance(v));
+                int previous = actual.getPrevious(v);
+                if (previous >= 0) {
+                    assertEquals(actual.getDistance(v),
+                            actual.getDistance(previous) + RandomGraphs.cheapest(adjacency, previous, v));
+                }
+            }
+            Isochrone isochrone = reordered.isochrone(source, 3);
+            assertEquals(expected.getSource(), isochrone.getVertex(0));
+            for (int i = 0; i < isochrone.size(); i++) {
+                assertEquals(expected.getDistance(isochrone.getVertex(i)), isochrone.getDistance(i));
+            }
+        }
+    }
+
+    private static int bandwidth(CompactGraph graph) {
+        int bandwidth = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int e = graph.edgesStart(v); e < graph.edgesEnd(v); e++) {
+                bandwidth = Math.max(bandwidth, Math.abs(graph.target(e) - v));
+            }
+        }
+        return bandwidth;
+    }
+}